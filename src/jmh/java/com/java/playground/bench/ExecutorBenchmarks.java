@@ -0,0 +1,103 @@
+package com.java.playground.bench;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reproducible version of the pool comparisons in ExecutorServicePoolsDemo, ThreadPoolVsThreadsDemo
+ * and ThreadPool1000TasksDemo. Each operation submits a batch of tasks and waits for all of them,
+ * so the score is tasks per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutorBenchmarks {
+
+	static final int BATCH = 1000;
+
+	public enum PoolType {
+		FIXED, CACHED, SINGLE, SCHEDULED, CUSTOM_TPE, VIRTUAL
+	}
+
+	public enum Shape {
+		/** Burns {@code taskSize * 100} Blackhole CPU tokens. */
+		CPU,
+		/** Parks for {@code taskSize * 10} microseconds, like a short blocking call. */
+		IO
+	}
+
+	@Param
+	PoolType poolType;
+
+	@Param({ "CPU", "IO" })
+	Shape shape;
+
+	/** Ignored by CACHED, SINGLE and VIRTUAL, which size themselves. */
+	@Param({ "4", "16" })
+	int threads;
+
+	@Param({ "1", "10" })
+	int taskSize;
+
+	private ExecutorService executor;
+
+	@Setup(Level.Trial)
+	public void createExecutor() {
+		executor = switch (poolType) {
+			case FIXED -> Executors.newFixedThreadPool(threads);
+			case CACHED -> Executors.newCachedThreadPool();
+			case SINGLE -> Executors.newSingleThreadExecutor();
+			case SCHEDULED -> Executors.newScheduledThreadPool(threads);
+			case CUSTOM_TPE -> new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(BATCH / 4), new ThreadPoolExecutor.CallerRunsPolicy());
+			case VIRTUAL -> Executors.newVirtualThreadPerTaskExecutor();
+		};
+	}
+
+	@TearDown(Level.Trial)
+	public void shutdown() throws InterruptedException {
+		executor.shutdownNow();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void runBatch() throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(BATCH);
+		Runnable task = shape == Shape.CPU ? () -> {
+			Blackhole.consumeCPU(taskSize * 100L);
+			done.countDown();
+		} : () -> {
+			LockSupport.parkNanos(taskSize * 10_000L);
+			done.countDown();
+		};
+		for (int i = 0; i < BATCH; i++) {
+			executor.execute(task);
+		}
+		done.await();
+	}
+}
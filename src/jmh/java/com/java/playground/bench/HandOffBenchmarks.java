@@ -0,0 +1,123 @@
+package com.java.playground.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One producer (the benchmark thread) and one consumer thread passing messages through the hand-off classes
+ * of WaitNotifyExample: {@code SharedResource} (wait/notify), {@code SharedResourceWithLock} (lock/condition)
+ * and {@code SpscQueue}. The score is messages per second.
+ * <p>
+ * Those classes live in the default package, which Java code in a package cannot name, so they are bound
+ * through reflection once per trial; the calls themselves go through bound method handles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HandOffBenchmarks {
+
+	static final int BATCH = 10_000;
+
+	private static final String MESSAGE = "Data";
+	private static final String POISON = new String("POISON");
+
+	public enum Impl {
+		WAIT_NOTIFY, LOCK_CONDITION, SPSC
+	}
+
+	@Param
+	Impl impl;
+
+	/** Buffer size; 1 is the original single-slot behaviour of WAIT_NOTIFY and LOCK_CONDITION. */
+	@Param({ "1", "64", "1024" })
+	int capacity;
+
+	private MethodHandle produce;
+	private MethodHandle consume;
+	private Thread consumer;
+
+	@Setup(Level.Trial)
+	public void createChannel() throws Throwable {
+		switch (impl) {
+			case WAIT_NOTIFY -> bind("SharedResource", "produce", "consume", capacity, false);
+			case LOCK_CONDITION -> bind("SharedResourceWithLock", "produce", "consume", capacity);
+			case SPSC -> bind("SpscQueue", "put", "take", capacity);
+		}
+
+		consumer = new Thread(() -> {
+			try {
+				while (consume.invoke() != POISON) {
+					// keep taking
+				}
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		}, "HandOff-Consumer");
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	@TearDown(Level.Trial)
+	public void stopConsumer() throws Throwable {
+		produce.invoke((Object) POISON);
+		consumer.join(TimeUnit.SECONDS.toMillis(10));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void produceBatch() throws Throwable {
+		for (int i = 0; i < BATCH; i++) {
+			produce.invoke((Object) MESSAGE);
+		}
+	}
+
+	private void bind(String className, String produceName, String consumeName, Object... constructorArgs)
+			throws ReflectiveOperationException {
+		Class<?> type = Class.forName(className);
+		Constructor<?> constructor = Arrays.stream(type.getDeclaredConstructors())
+				.filter(c -> c.getParameterCount() == constructorArgs.length)
+				.findFirst()
+				.orElseThrow(() -> new NoSuchMethodException(className + " constructor"));
+		constructor.setAccessible(true);
+		Object instance = constructor.newInstance(constructorArgs);
+
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		produce = lookup.unreflect(method(type, produceName, 1)).bindTo(instance)
+				.asType(MethodType.methodType(void.class, Object.class));
+		consume = lookup.unreflect(method(type, consumeName, 0)).bindTo(instance)
+				.asType(MethodType.methodType(Object.class));
+	}
+
+	private static Method method(Class<?> type, String name, int parameterCount) throws NoSuchMethodException {
+		for (Method method : type.getDeclaredMethods()) {
+			if (method.getName().equals(name) && method.getParameterCount() == parameterCount) {
+				method.setAccessible(true);
+				return method;
+			}
+		}
+		throw new NoSuchMethodException(type.getName() + "." + name);
+	}
+}
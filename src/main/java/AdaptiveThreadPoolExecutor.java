@@ -0,0 +1,166 @@
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// ThreadPoolExecutor that resizes itself from live metrics.
+// Every sample period it looks at how many tasks arrived, how long they waited in the queue and how
+// long they ran, then sizes the pool with Little's law (threads = arrival rate x run time) plus
+// enough extra threads to drain the backlog within the target queue wait.
+// Grows quickly under bursts, shrinks one thread per sample when idle.
+class AdaptiveThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final int minThreads;
+    private final int maxThreads;
+    private final long targetWaitNanos;
+    private final long samplePeriodNanos;
+    private final ScheduledExecutorService sampler;
+
+    // Accumulated since the last sample
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder finished = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+
+    // Last sample, for stats()
+    private volatile long lastAvgWaitNanos;
+    private volatile long lastAvgRunNanos;
+    private final AtomicLong resizes = new AtomicLong();
+
+    public AdaptiveThreadPoolExecutor(int minThreads, int maxThreads, long targetQueueWait, TimeUnit unit,
+                                      BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory,
+                                      RejectedExecutionHandler handler) {
+        super(minThreads, Math.min(maxThreads, minThreads * 2), 30L, TimeUnit.SECONDS,
+                workQueue, threadFactory, handler);
+        if (minThreads <= 0 || maxThreads < minThreads) {
+            throw new IllegalArgumentException("Need 0 < minThreads <= maxThreads, got " + minThreads + ", " + maxThreads);
+        }
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.targetWaitNanos = unit.toNanos(targetQueueWait);
+        this.samplePeriodNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(100), targetWaitNanos);
+
+        this.sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "AdaptivePool-Sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::adjust, samplePeriodNanos, samplePeriodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submitted.increment();
+        super.execute(new TimedTask(command));
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        if (r instanceof TimedTask task) {
+            task.startedAt = System.nanoTime();
+            waitNanos.add(task.startedAt - task.enqueuedAt);
+            started.increment();
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        if (r instanceof TimedTask task) {
+            runNanos.add(System.nanoTime() - task.startedAt);
+            finished.increment();
+        }
+    }
+
+    @Override
+    protected void terminated() {
+        sampler.shutdownNow();
+        super.terminated();
+    }
+
+    private void adjust() {
+        if (isShutdown()) {
+            return;
+        }
+        long arrivals = submitted.sumThenReset();
+        long startedCount = started.sumThenReset();
+        long finishedCount = finished.sumThenReset();
+        long totalWait = waitNanos.sumThenReset();
+        long totalRun = runNanos.sumThenReset();
+
+        long avgWait = startedCount == 0 ? 0 : totalWait / startedCount;
+        long avgRun = finishedCount == 0 ? lastAvgRunNanos : totalRun / finishedCount;
+        // If nothing got to start, the oldest queued task tells us how bad waiting is
+        avgWait = Math.max(avgWait, oldestQueuedAge());
+        lastAvgWaitNanos = avgWait;
+        lastAvgRunNanos = avgRun;
+
+        // Little's law for steady load, plus extra threads to clear the backlog within the target wait
+        double arrivalRate = arrivals / (double) samplePeriodNanos;
+        double busyThreads = arrivalRate * avgRun;
+        double backlogThreads = getQueue().size() * (double) avgRun / targetWaitNanos;
+        int desired = (int) Math.ceil(busyThreads + backlogThreads);
+
+        int core = getCorePoolSize();
+        int newCore = core;
+        if (avgWait > targetWaitNanos && desired > core) {
+            newCore = Math.min(maxThreads, desired);
+        } else if (avgWait < targetWaitNanos / 4 && desired < core && getActiveCount() < core) {
+            newCore = Math.max(minThreads, core - 1);  // shrink slowly to avoid flapping
+        }
+        if (newCore != core) {
+            resize(newCore);
+        }
+    }
+
+    private void resize(int newCore) {
+        // Max leaves headroom for bursts that overflow the queue
+        int newMax = Math.min(maxThreads, Math.max(newCore, newCore * 2));
+        if (newCore > getCorePoolSize()) {
+            setMaximumPoolSize(Math.max(newMax, newCore));
+            setCorePoolSize(newCore);
+        } else {
+            setCorePoolSize(newCore);
+            setMaximumPoolSize(newMax);
+        }
+        resizes.incrementAndGet();
+    }
+
+    private long oldestQueuedAge() {
+        Runnable head = getQueue().peek();
+        return head instanceof TimedTask task ? System.nanoTime() - task.enqueuedAt : 0;
+    }
+
+    public String stats() {
+        return "core=" + getCorePoolSize() +
+                ", max=" + getMaximumPoolSize() +
+                ", pool=" + getPoolSize() +
+                ", active=" + getActiveCount() +
+                ", queued=" + getQueue().size() +
+                ", avgWaitMs=" + lastAvgWaitNanos / 1_000_000 +
+                ", avgRunMs=" + lastAvgRunNanos / 1_000_000 +
+                ", resizes=" + resizes.get();
+    }
+
+    // Carries the enqueue timestamp so wait time can be measured when a worker picks the task up
+    private static class TimedTask implements Runnable {
+        private final Runnable delegate;
+        private final long enqueuedAt = System.nanoTime();
+        private long startedAt;
+
+        TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
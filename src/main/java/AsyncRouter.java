@@ -0,0 +1,132 @@
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Async facade that routes each CompletableFuture stage by what it does, instead of everything
+// going to ForkJoinPool.commonPool():
+// - CPU stages run on a dedicated ForkJoinPool sized to the cores; it is not shared with parallel streams
+// - IO stages (sleep, network, disk, locks) run on virtual threads, which unmount while they block
+// A watchdog samples the CPU pool's busy threads; one found sleeping, waiting or blocked while running
+// a task is holding a core-sized slot idle, so it is reported with the blocking frame - route that
+// stage as IO (or wrap the call in ForkJoinPool.managedBlock).
+final class AsyncRouter implements AutoCloseable {
+
+    enum Kind { CPU, IO }
+
+    private static final long WATCHDOG_INTERVAL_MS = 50;
+
+    private final ForkJoinPool cpuPool;
+    private final ExecutorService ioExecutor;
+    private final ScheduledExecutorService watchdog;
+    private final Executor cpuExecutor;
+    // CPU pool threads that are running a task right now
+    private final Map<Thread, TaskRun> running = new ConcurrentHashMap<>();
+    private final LongAdder blockingWarnings = new LongAdder();
+
+    AsyncRouter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    AsyncRouter(int cpuParallelism) {
+        this.cpuPool = new ForkJoinPool(cpuParallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("cpu-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        this.ioExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("io-", 1).factory());
+        this.cpuExecutor = command -> cpuPool.execute(() -> {
+            Thread thread = Thread.currentThread();
+            running.put(thread, new TaskRun());
+            try {
+                command.run();
+            } finally {
+                running.remove(thread);
+            }
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "AsyncRouter-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleAtFixedRate(this::checkCpuPool, WATCHDOG_INTERVAL_MS, WATCHDOG_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    <T> CompletableFuture<T> supplyAsync(Kind kind, Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, executor(kind));
+    }
+
+    <T> CompletableFuture<T> supplyCpu(Supplier<T> supplier) {
+        return supplyAsync(Kind.CPU, supplier);
+    }
+
+    <T> CompletableFuture<T> supplyIo(Supplier<T> supplier) {
+        return supplyAsync(Kind.IO, supplier);
+    }
+
+    CompletableFuture<Void> runAsync(Kind kind, Runnable action) {
+        return CompletableFuture.runAsync(action, executor(kind));
+    }
+
+    // For the *Async stage methods, e.g. thenApplyAsync(fn, router.executor(Kind.CPU))
+    Executor executor(Kind kind) {
+        return kind == Kind.CPU ? cpuExecutor : ioExecutor;
+    }
+
+    long blockingWarnings() {
+        return blockingWarnings.sum();
+    }
+
+    private void checkCpuPool() {
+        running.forEach((thread, run) -> {
+            Thread.State state = thread.getState();
+            if (state == Thread.State.RUNNABLE || run.reported) {
+                return;
+            }
+            StackTraceElement[] stack = thread.getStackTrace();
+            // The thread may have finished its task since the state was read
+            if (running.get(thread) != run) {
+                return;
+            }
+            run.reported = true;
+            blockingWarnings.increment();
+            System.out.println("⚠️  Blocking call on CPU pool: " + thread.getName() + " is " + state +
+                    " " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - run.startNanos) + "ms into its task at " +
+                    blockingFrame(stack) + " - route this stage as IO");
+        });
+    }
+
+    // First frame outside the JDK: the code that made the blocking call
+    private static String blockingFrame(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if (!className.startsWith("java.") && !className.startsWith("jdk.") && !className.startsWith("sun.")
+                    && !className.startsWith(AsyncRouter.class.getName())) {
+                return frame.toString();
+            }
+        }
+        return stack.length > 0 ? stack[0].toString() : "unknown frame";
+    }
+
+    @Override
+    public void close() {
+        watchdog.shutdownNow();
+        cpuPool.shutdown();
+        ioExecutor.shutdown();
+    }
+
+    private static final class TaskRun {
+        final long startNanos = System.nanoTime();
+        volatile boolean reported;
+    }
+}
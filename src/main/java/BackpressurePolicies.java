@@ -0,0 +1,245 @@
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Overload behaviours that keep producer latency bounded - alternatives to CallerRunsPolicy,
+// which makes the submitting thread run a whole task. Pick one per pool; each keeps its own counters.
+final class BackpressurePolicies {
+
+    private BackpressurePolicies() {
+    }
+
+    static TimedBlockingOfferPolicy timedBlockingOffer(long timeout, TimeUnit unit) {
+        return new TimedBlockingOfferPolicy(timeout, unit);
+    }
+
+    static DropOldestPolicy dropOldest(Consumer<Runnable> onDrop) {
+        return new DropOldestPolicy(onDrop);
+    }
+
+    static ShedByPriorityPolicy shedByPriority(Consumer<Runnable> onShed) {
+        return new ShedByPriorityPolicy(onShed);
+    }
+
+    static TokenBucketExecutor rateLimited(ExecutorService delegate, int permitsPerSecond, int burst,
+                                           long maxWait, TimeUnit unit) {
+        return new TokenBucketExecutor(delegate, permitsPerSecond, burst, maxWait, unit);
+    }
+
+    // Dropped tasks may be Futures someone is waiting on - cancel them so get() does not hang
+    private static void discard(Runnable task, Consumer<Runnable> callback) {
+        callback.accept(task);
+        if (task instanceof Future<?> future) {
+            future.cancel(false);
+        }
+    }
+
+    // 1. Wait a bounded time for queue space, then reject
+    static class TimedBlockingOfferPolicy implements RejectedExecutionHandler {
+        private final long timeoutNanos;
+        private final LongAdder acceptedAfterWait = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+
+        TimedBlockingOfferPolicy(long timeout, TimeUnit unit) {
+            this.timeoutNanos = unit.toNanos(timeout);
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor is shut down");
+            }
+            long start = System.nanoTime();
+            try {
+                boolean queued = executor.getQueue().offer(r, timeoutNanos, TimeUnit.NANOSECONDS);
+                waitNanos.add(System.nanoTime() - start);
+                if (queued) {
+                    // Shutdown may have raced with the offer - do not leave the task stranded
+                    if (executor.isShutdown() && executor.remove(r)) {
+                        throw new RejectedExecutionException("Executor shut down while waiting");
+                    }
+                    acceptedAfterWait.increment();
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for queue space", e);
+            }
+            timedOut.increment();
+            throw new RejectedExecutionException("Queue still full after " +
+                    TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms");
+        }
+
+        String stats() {
+            return "timedOffer: acceptedAfterWait=" + acceptedAfterWait.sum() +
+                    ", timedOut=" + timedOut.sum() +
+                    ", totalWaitMs=" + waitNanos.sum() / 1_000_000;
+        }
+    }
+
+    // 2. Make room by dropping the oldest queued task, handing it to a callback (log, persist, retry later)
+    static class DropOldestPolicy implements RejectedExecutionHandler {
+        private final Consumer<Runnable> onDrop;
+        private final LongAdder dropped = new LongAdder();
+
+        DropOldestPolicy(Consumer<Runnable> onDrop) {
+            this.onDrop = onDrop;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor is shut down");
+            }
+            Runnable oldest = executor.getQueue().poll();
+            if (oldest != null) {
+                dropped.increment();
+                discard(oldest, onDrop);
+            }
+            executor.execute(r);
+        }
+
+        String stats() {
+            return "dropOldest: dropped=" + dropped.sum();
+        }
+    }
+
+    // 3. Keep the most important work: evict the lowest-priority queued task if it ranks below
+    //    the incoming one, otherwise shed the incoming task. Priorities come from Prioritized.
+    //    Use it with PriorityThreadPoolExecutor: a plain ThreadPoolExecutor wraps submit()ted tasks in
+    //    a FutureTask that hides their priority, so they would all rank as NORMAL.
+    static class ShedByPriorityPolicy implements RejectedExecutionHandler {
+        private final Consumer<Runnable> onShed;
+        private final LongAdder evictedQueued = new LongAdder();
+        private final LongAdder shedIncoming = new LongAdder();
+
+        ShedByPriorityPolicy(Consumer<Runnable> onShed) {
+            this.onShed = onShed;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor is shut down");
+            }
+            int incoming = Prioritized.priorityOf(r);
+
+            // Bounded queue, so a linear scan for the weakest task is cheap
+            Runnable victim = null;
+            int lowest = incoming;
+            for (Runnable queued : executor.getQueue()) {
+                int priority = Prioritized.priorityOf(queued);
+                if (priority < lowest) {
+                    lowest = priority;
+                    victim = queued;
+                }
+            }
+
+            if (victim != null && executor.getQueue().remove(victim)) {
+                evictedQueued.increment();
+                discard(victim, onShed);
+                executor.execute(r);
+            } else {
+                shedIncoming.increment();
+                discard(r, onShed);
+            }
+        }
+
+        String stats() {
+            return "shedByPriority: evictedQueued=" + evictedQueued.sum() + ", shedIncoming=" + shedIncoming.sum();
+        }
+    }
+
+    // 4. Token bucket in front of submit: bursts up to 'burst' pass straight through, after that callers
+    //    are paced to permitsPerSecond and rejected if they would wait longer than maxWait.
+    //    Lock-free (GCRA): one AtomicLong holds the theoretical arrival time of the next permit.
+    static class TokenBucketExecutor extends AbstractExecutorService {
+        private final ExecutorService delegate;
+        private final long intervalNanos;
+        private final long burstToleranceNanos;
+        private final long maxWaitNanos;
+        private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+        private final LongAdder passed = new LongAdder();
+        private final LongAdder delayed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+
+        TokenBucketExecutor(ExecutorService delegate, int permitsPerSecond, int burst, long maxWait, TimeUnit unit) {
+            if (permitsPerSecond <= 0 || burst <= 0) {
+                throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+            }
+            this.delegate = delegate;
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+            this.burstToleranceNanos = (burst - 1) * intervalNanos;
+            this.maxWaitNanos = unit.toNanos(maxWait);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            long wait = acquire();
+            if (wait < 0) {
+                rejected.increment();
+                throw new RejectedExecutionException("Rate limit exceeded");
+            }
+            if (wait > 0) {
+                delayed.increment();
+                waitNanos.add(wait);
+                LockSupport.parkNanos(wait);
+            }
+            passed.increment();
+            delegate.execute(command);
+        }
+
+        // Returns how long to wait for a permit, or -1 if that would exceed maxWait
+        private long acquire() {
+            while (true) {
+                long now = System.nanoTime();
+                long tat = theoreticalArrival.get();
+                long wait = Math.max(0, tat - burstToleranceNanos - now);
+                if (wait > maxWaitNanos) {
+                    return -1;
+                }
+                if (theoreticalArrival.compareAndSet(tat, Math.max(tat, now) + intervalNanos)) {
+                    return wait;
+                }
+            }
+        }
+
+        String stats() {
+            return "tokenBucket: passed=" + passed.sum() +
+                    ", delayed=" + delayed.sum() +
+                    ", rejected=" + rejected.sum() +
+                    ", totalWaitMs=" + waitNanos.sum() / 1_000_000;
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+class BatchProcessor implements Runnable {
+
+    private final ExecutorService workers;
+    private final IntFunction<List<String>> workSource;
+    private final int chunkSize;
+    private final AtomicInteger cycleNumber = new AtomicInteger(0);
+    private final TaskIdAllocator taskIds = new TaskIdAllocator();
+    // -Dbatch.trace=true prints every task as it runs - only sensible with a few items per cycle
+    private final boolean trace = Boolean.getBoolean("batch.trace");
+    private final CheckpointLog checkpoints;
+    private final Queue<CheckpointLog.PendingCycle> resumeQueue = new ConcurrentLinkedQueue<>();
+
+    public BatchProcessor(ExecutorService workers, IntFunction<List<String>> workSource, int chunkSize) {
+        this(workers, workSource, chunkSize, null);
+    }
+
+    // With a checkpoint log, cycles left unfinished by a previous run are resumed first.
+    // The work source must return the same items for the same cycle number.
+    public BatchProcessor(ExecutorService workers, IntFunction<List<String>> workSource, int chunkSize,
+                          CheckpointLog checkpoints) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.workers = workers;
+        this.workSource = workSource;
+        this.chunkSize = chunkSize;
+        this.checkpoints = checkpoints;
+
+        if (checkpoints != null) {
+            CheckpointLog.Recovery recovery = checkpoints.recovery();
+            cycleNumber.set(recovery.lastCycle());
+            resumeQueue.addAll(recovery.pendingCycles());
+        }
+    }
+
+    @Override
+    public void run() {
+        runCycle();
+    }
+
+    // Starts one cycle and returns straight away - the future completes when every chunk is done
+    public CompletableFuture<CycleStats> runCycle() {
+        CheckpointLog.PendingCycle resumed = resumeQueue.poll();
+        if (resumed != null) {
+            List<String> items = workSource.apply(resumed.cycle());
+            int[] unfinished = resumed.unfinishedItems();
+            System.out.println("\n--- Cycle " + resumed.cycle() + " resumed (" + unfinished.length +
+                    " of " + items.size() + " items left) ---");
+            return runItems(resumed.cycle(), items, unfinished);
+        }
+
+        int cycle = cycleNumber.incrementAndGet();
+        List<String> items = workSource.apply(cycle);
+        System.out.println("\n--- Cycle " + cycle + " (" + items.size() + " items) ---");
+        if (checkpoints != null) {
+            checkpoints.cycleStarted(cycle, items.size());
+        }
+        return runItems(cycle, items, null);
+    }
+
+    // Runs the given item positions of a cycle (null = all of them)
+    private CompletableFuture<CycleStats> runItems(int cycle, List<String> items, int[] positions) {
+        int count = positions == null ? items.size() : positions.length;
+
+        // Reserve one id range for the whole cycle - workers derive ids from item positions
+        TaskIdAllocator.IdBlock ids = taskIds.allocate(items.size());
+
+        long cycleStart = System.nanoTime();
+        // Per-item latency: from its chunk being submitted until the item is done (includes queueing)
+        long[] latencies = new long[count];
+
+        // Split the items into chunks - one worker task per chunk
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < count; from += chunkSize) {
+            int start = from;
+            int end = Math.min(from + chunkSize, count);
+            Chunk chunk = new Chunk(cycle, items, positions, ids, start, end, latencies);
+            workers.execute(chunk);
+            chunks.add(chunk);
+        }
+
+        // Finish the cycle asynchronously - the scheduler thread never waits on workers
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        System.out.println("Cycle " + cycle + " failed: " + error.getMessage());
+                    } else if (checkpoints != null) {
+                        checkpoints.cycleFinished(cycle);
+                    }
+                    int failedChunks = (int) chunks.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+                    CycleStats stats = CycleStats.of(cycle, latencies, System.nanoTime() - cycleStart, failedChunks);
+                    System.out.println(stats);
+                    return stats;
+                });
+    }
+
+    private void processChunk(int cycle, List<String> items, int[] positions, TaskIdAllocator.IdBlock ids,
+                              int start, int end, long submitted, long[] latencies) {
+        for (int i = start; i < end; i++) {
+            int item = positions == null ? i : positions[i];
+            doWork(ids.idAt(item), items.get(item));
+            if (checkpoints != null) {
+                checkpoints.taskDone(cycle, item);
+            }
+            latencies[i] = System.nanoTime() - submitted;
+        }
+    }
+
+    private void doWork(long taskId, String item) {
+        if (trace) {
+            System.out.println(Thread.currentThread().getName() + " doing Task-" + taskId + " (" + item + ")");
+        }
+        // Simulate short IO-style work (0.05-0.25 ms); the same item always takes the same time,
+        // so a resumed cycle repeats the work it would have done
+        LockSupport.parkNanos(50_000 + Math.floorMod(item.hashCode(), 200_000));
+    }
+
+    // One worker task that is also its own future: a shutdown that takes it back unstarted can
+    // cancel it (the cycle then fails instead of hanging) and spill which items it covered
+    private final class Chunk extends CompletableFuture<Void> implements Runnable, ExecutorLifecycle.Spillable {
+        private final int cycle;
+        private final List<String> items;
+        private final int[] positions;
+        private final TaskIdAllocator.IdBlock ids;
+        private final int start;
+        private final int end;
+        private final long[] latencies;
+        private final long submitted = System.nanoTime();
+
+        Chunk(int cycle, List<String> items, int[] positions, TaskIdAllocator.IdBlock ids, int start, int end,
+              long[] latencies) {
+            this.cycle = cycle;
+            this.items = items;
+            this.positions = positions;
+            this.ids = ids;
+            this.start = start;
+            this.end = end;
+            this.latencies = latencies;
+        }
+
+        @Override
+        public void run() {
+            // Cancelled while queued
+            if (isDone()) {
+                return;
+            }
+            try {
+                processChunk(cycle, items, positions, ids, start, end, submitted, latencies);
+                complete(null);
+            } catch (Throwable e) {
+                completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public String spillRecord() {
+            return "batch cycle " + cycle + ": " + (end - start) + " items " +
+                    items.get(item(start)) + " .. " + items.get(item(end - 1));
+        }
+
+        private int item(int i) {
+            return positions == null ? i : positions[i];
+        }
+    }
+}
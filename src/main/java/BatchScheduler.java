@@ -1,78 +1,105 @@
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
+import java.util.function.IntFunction;
 
 public class BatchScheduler {
 
     public static void main(String[] args) throws InterruptedException {
         System.out.println("=== Simple Batch Scheduler ===\n");
 
-        // Create scheduler - runs tasks on schedule
-        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+        // Everything is picked from system properties, e.g. -Dbatch.overlap=SKIP -Dbatch.backend=VIRTUAL_PER_TASK
+        OverlapPolicy policy = OverlapPolicy.valueOf(System.getProperty("batch.overlap", "COALESCE"));
+        int maxConcurrentCycles = Integer.getInteger("batch.maxConcurrentCycles", 2);
+        int itemsPerCycle = Integer.getInteger("batch.items", 20_000);
+        int chunkSize = Integer.getInteger("batch.chunkSize", 500);
+        int concurrency = Integer.getInteger("batch.concurrency", 5);
 
-        // Create worker pool - 5 workers to do the tasks
-        ExecutorService workers = Executors.newFixedThreadPool(5);
+        if (args.length > 0 && args[0].equals("benchmark")) {
+            runBenchmark(itemsPerCycle, concurrency);
+            return;
+        }
+
+        // Create worker pool - 5 platform workers unless configured otherwise
+        WorkerBackend backend = WorkerBackend.fromConfig();
+        ExecutorService workers = backend.create(concurrency);
+        // Ctrl-C drains the workers too; unstarted chunks land in the spill file
+        ExecutorLifecycle lifecycle = new ExecutorLifecycle(Duration.ofSeconds(10), Path.of("executor-spill.log"))
+                .installShutdownHook();
+        lifecycle.register("BatchWorkers", workers);
+        System.out.println("Worker backend: " + backend + " (concurrency " + concurrency + ")");
+
+        // Optional checkpoint log, e.g. -Dbatch.checkpoint=batch.ckpt - a restart resumes unfinished items
+        String checkpointFile = System.getProperty("batch.checkpoint");
+        CheckpointLog checkpoints = checkpointFile == null ? null : CheckpointLog.open(Path.of(checkpointFile));
+        if (checkpoints != null) {
+            CheckpointLog.Recovery recovery = checkpoints.recovery();
+            System.out.println("Checkpoint: last cycle " + recovery.lastCycle() + ", " +
+                    recovery.pendingCycles().size() + " unfinished cycle(s) to resume");
+        }
 
         // Create batch processor
-        BatchProcessor processor = new BatchProcessor(workers);
+        BatchProcessor processor = new BatchProcessor(workers, workSource(itemsPerCycle), chunkSize, checkpoints);
 
-        // Run every 5 seconds (change to 120 for 2 minutes)
-        scheduler.scheduleAtFixedRate(processor, 0, 5, TimeUnit.SECONDS);
+        // Create scheduler - runs a cycle every 5 seconds (change to 120 for 2 minutes)
+        OverlapAwareScheduler scheduler = new OverlapAwareScheduler(
+                processor, policy, maxConcurrentCycles, 5, TimeUnit.SECONDS);
+        scheduler.start();
 
         // Run for 15 seconds (3 cycles)
         Thread.sleep(16000);
 
         // Stop everything
-        scheduler.shutdown();
-        workers.shutdown();
+        scheduler.stop();
+        System.out.println(lifecycle.shutdownAll());
+        if (checkpoints != null) {
+            checkpoints.close();
+        }
+        System.out.println("\nScheduler metrics: " + scheduler.metrics());
         System.out.println("\nDone!");
     }
-}
-
-class BatchProcessor implements Runnable {
-
-    private ExecutorService workers;
-    private int cycleNumber = 0;
-    private int taskId = 1;
-
-    public BatchProcessor(ExecutorService workers) {
-        this.workers = workers;
-    }
 
-    @Override
-    public void run() {
-        cycleNumber++;
-        System.out.println("\n--- Cycle " + cycleNumber + " ---");
-
-        // Create 5 tasks
-        Future<?> task1 = workers.submit(() -> doWork(taskId++, 1));
-        Future<?> task2 = workers.submit(() -> doWork(taskId++, 2));
-        Future<?> task3 = workers.submit(() -> doWork(taskId++, 3));
-        Future<?> task4 = workers.submit(() -> doWork(taskId++, 4));
-        Future<?> task5 = workers.submit(() -> doWork(taskId++, 5));
-
-        // Wait for all 5 to finish
-        try {
-            task1.get();
-            task2.get();
-            task3.get();
-            task4.get();
-            task5.get();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        System.out.println("All 5 tasks done!\n");
+    // Work source - builds the list of items for each cycle
+    private static IntFunction<List<String>> workSource(int itemsPerCycle) {
+        return cycle -> {
+            List<String> items = new ArrayList<>(itemsPerCycle);
+            for (int i = 1; i <= itemsPerCycle; i++) {
+                items.add("C" + cycle + "-Item-" + i);
+            }
+            return items;
+        };
     }
 
-    private void doWork(int taskId, int workerNum) {
-        System.out.println("Worker-" + workerNum + " doing Task-" + taskId);
-
-        // Simulate work (1-3 seconds)
-        try {
-            Thread.sleep(1000 + (int)(Math.random() * 2000));
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+    // Same workload on every backend, one cycle after another - prints throughput and p99 per backend
+    private static void runBenchmark(int itemsPerCycle, int concurrency) {
+        System.out.println("Benchmark: " + itemsPerCycle + " items per cycle, concurrency " + concurrency + "\n");
+        int chunkSize = 10;  // small chunks so the backend, not the chunking, limits parallelism
+        int warmupCycles = 1;
+        int measuredCycles = 3;
+
+        List<String> results = new ArrayList<>();
+        for (WorkerBackend backend : WorkerBackend.values()) {
+            ExecutorService workers = backend.create(concurrency);
+            BatchProcessor processor = new BatchProcessor(workers, workSource(itemsPerCycle), chunkSize);
+
+            for (int i = 0; i < warmupCycles; i++) {
+                processor.runCycle().join();
+            }
+            double throughput = 0;
+            long p99 = 0;
+            for (int i = 0; i < measuredCycles; i++) {
+                CycleStats stats = processor.runCycle().join();
+                throughput += stats.throughputPerSecond() / measuredCycles;
+                p99 = Math.max(p99, stats.p99Nanos());
+            }
+            workers.close();
+
+            results.add(String.format("%-17s %12.0f items/s   p99 %8.2f ms", backend, throughput, p99 / 1e6));
         }
 
-        System.out.println("Worker-" + workerNum + " finished Task-" + taskId);
+        System.out.println("\n=== Benchmark Results ===");
+        results.forEach(System.out::println);
     }
 }
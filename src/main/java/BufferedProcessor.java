@@ -0,0 +1,217 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// SharedResourceWithLock as a Flow.Processor: upstream publishers fill the buffer, one downstream
+// subscriber drains it - with demand instead of blocked threads on either side.
+// - upstream is only ever asked for as many items as there is free space in the buffer,
+//   and is asked for more as the downstream subscriber takes items out
+// - downstream gets items only after request(n); a slow subscriber simply requests less,
+//   which shrinks upstream demand, which throttles the producer
+// Delivery runs on the executor in a single drain loop at a time (a work-in-progress counter
+// serializes it), so onNext/onComplete/onError are never called concurrently. Upstream request()
+// and cancel() are only called from that loop too, so they never overlap either (rule 2.7).
+class BufferedProcessor implements Flow.Processor<String, String> {
+
+    private static final int MAX_BATCH = 64;
+    // Subscribers may block in onNext; a virtual thread per drain keeps that off the common pool
+    private static final Executor DEFAULT_EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("BufferedProcessor-", 0).factory());
+
+    private final SharedResourceWithLock buffer;
+    private final Executor executor;
+
+    private final AtomicReference<Flow.Subscriber<? super String>> downstream = new AtomicReference<>();
+    // Set once the subscriber's onSubscribe has returned; until then nothing is signalled to it (rule 1.9)
+    private volatile boolean subscribed;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile Flow.Subscription upstream;
+    // Upstream demand not yet passed on with request(); the drain loop sends it
+    private final AtomicLong upstreamDemand = new AtomicLong();
+    private volatile boolean cancelUpstream;
+    private volatile boolean upstreamDone;
+    private volatile Throwable error;
+    private volatile boolean cancelled;
+
+    // Only touched by the drain loop
+    private boolean terminated;
+    private boolean upstreamCancelled;
+
+    BufferedProcessor(int capacity) {
+        this(capacity, DEFAULT_EXECUTOR);
+    }
+
+    BufferedProcessor(int capacity, Executor executor) {
+        this.buffer = new SharedResourceWithLock(capacity);
+        this.executor = executor;
+    }
+
+    // ---- Subscriber side (upstream) ----
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null || cancelled) {
+            subscription.cancel();  // one upstream only
+            return;
+        }
+        upstream = subscription;
+        upstreamDemand.addAndGet(buffer.capacity());
+        drain();
+    }
+
+    @Override
+    public void onNext(String item) {
+        // Demand never exceeds free space, so a full buffer means upstream sent more than it was asked for
+        if (!buffer.offer(item)) {
+            cancelUpstream = true;
+            onError(new IllegalStateException("Upstream sent more items than requested"));
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    // ---- Publisher side (downstream) ----
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+        if (!downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("BufferedProcessor supports a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    cancelUpstream();
+                    error = new IllegalArgumentException("request(" + n + "): demand must be positive");
+                    upstreamDone = true;
+                    buffer.drainTo(new ArrayList<>(), Integer.MAX_VALUE);
+                } else {
+                    demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+                }
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                cancelUpstream();
+                drain();
+            }
+        });
+        subscribed = true;
+        drain();
+    }
+
+    private void cancelUpstream() {
+        cancelUpstream = true;
+    }
+
+    // ---- delivery ----
+
+    private void drain() {
+        if (wip.getAndIncrement() == 0) {
+            executor.execute(this::drainLoop);
+        }
+    }
+
+    private void drainLoop() {
+        List<String> batch = new ArrayList<>(MAX_BATCH);
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super String> subscriber = subscribed ? downstream.get() : null;
+            if (subscriber != null && !terminated) {
+                long emitted = emit(subscriber, batch);
+                if (emitted > 0) {
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.addAndGet(-emitted);
+                    }
+                    // Space freed in the buffer - let upstream fill it again
+                    upstreamDemand.addAndGet(emitted);
+                }
+                if (cancelled) {
+                    terminated = true;
+                    buffer.drainTo(new ArrayList<>(), Integer.MAX_VALUE);
+                } else if (upstreamDone && buffer.size() == 0) {
+                    terminated = true;
+                    Throwable failure = error;
+                    if (failure == null) {
+                        subscriber.onComplete();
+                    } else {
+                        subscriber.onError(failure);
+                    }
+                }
+            }
+            signalUpstream();
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    // Drain loop only
+    private void signalUpstream() {
+        Flow.Subscription subscription = upstream;
+        if (subscription == null || upstreamCancelled) {
+            return;
+        }
+        if (cancelUpstream || cancelled) {
+            upstreamCancelled = true;
+            subscription.cancel();
+            return;
+        }
+        long n = upstreamDemand.getAndSet(0);
+        if (n > 0 && !upstreamDone) {
+            subscription.request(n);
+        }
+    }
+
+    private long emit(Flow.Subscriber<? super String> subscriber, List<String> batch) {
+        long requested = demand.get();
+        long emitted = 0;
+        while (emitted < requested && !cancelled) {
+            batch.clear();
+            if (buffer.drainTo(batch, (int) Math.min(MAX_BATCH, requested - emitted)) == 0) {
+                break;
+            }
+            for (String item : batch) {
+                try {
+                    subscriber.onNext(item);
+                } catch (Throwable t) {
+                    // A throwing subscriber is treated as cancelled (Reactive Streams rule 2.13)
+                    cancelled = true;
+                    cancelUpstream();
+                    break;
+                }
+            }
+            emitted += batch.size();
+        }
+        return emitted;
+    }
+}
@@ -0,0 +1,289 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Append-only, memory-mapped log of batch progress, so a restarted JVM only re-runs unfinished items.
+// Every record is 16 bytes: [int type][int cycle][long value]. Writers reserve slots with one getAndAdd,
+// so workers never wait on each other. When the file fills up it is compacted into a snapshot of the
+// cycles that are still open - recovery time depends on open work, not on how many tasks ever finished.
+class CheckpointLog implements AutoCloseable {
+
+    static final int DEFAULT_CAPACITY = 64 * 1024 * 1024;
+
+    private static final int RECORD_SIZE = 16;
+    private static final int CYCLE_START = 1;  // value = number of items in the cycle
+    private static final int TASK_DONE = 2;    // value = index of the finished item
+    private static final int CYCLE_END = 3;
+    private static final int SNAPSHOT = 4;     // value = number of bitset words that follow the record
+    private static final int LAST_CYCLE = 5;   // keeps cycle numbering going after compaction
+    // Each writer leaves at most one empty slot behind it (reserved, not written yet), so a longer run
+    // of empty slots than there can be concurrent writers is the end of the data
+    private static final int MAX_GAP_SLOTS = 4096;
+
+    private final Path file;
+    private final ReentrantReadWriteLock compactionLock = new ReentrantReadWriteLock();
+    private final AtomicLong position = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private final Recovery recovery;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+
+    private CheckpointLog(Path file, int capacity) throws IOException {
+        this.file = file;
+        long existing = Files.exists(file) ? Files.size(file) : 0;
+        map((int) Math.max(roundToRecord(capacity), roundToRecord(existing)));
+
+        // The mapped size, not the requested one: an earlier compaction may have grown the file past it
+        State state = scan(this.capacity);
+        this.recovery = state.toRecovery();
+        position.set(state.end);
+    }
+
+    public static CheckpointLog open(Path file) {
+        return open(file, DEFAULT_CAPACITY);
+    }
+
+    public static CheckpointLog open(Path file, int capacity) {
+        try {
+            return new CheckpointLog(file, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open checkpoint log " + file, e);
+        }
+    }
+
+    // What was found on disk when the log was opened
+    public Recovery recovery() {
+        return recovery;
+    }
+
+    public void cycleStarted(int cycle, int itemCount) {
+        append(CYCLE_START, cycle, itemCount);
+    }
+
+    public void taskDone(int cycle, int itemIndex) {
+        append(TASK_DONE, cycle, itemIndex);
+    }
+
+    // Marks the cycle complete, flushes to disk and compacts once the log is three quarters full
+    public void cycleFinished(int cycle) {
+        append(CYCLE_END, cycle, 0);
+        compactionLock.readLock().lock();
+        try {
+            buffer.force();
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+        if (position.get() > capacity / 4L * 3) {
+            compact(true);
+        }
+    }
+
+    public long compactions() {
+        return compactions.get();
+    }
+
+    @Override
+    public void close() {
+        compactionLock.writeLock().lock();
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            compactionLock.writeLock().unlock();
+        }
+    }
+
+    private void append(int type, int cycle, long value) {
+        while (true) {
+            compactionLock.readLock().lock();
+            try {
+                long offset = position.getAndAdd(RECORD_SIZE);
+                if (offset + RECORD_SIZE <= capacity) {
+                    int at = (int) offset;
+                    buffer.putInt(at + 4, cycle);
+                    buffer.putLong(at + 8, value);
+                    buffer.putInt(at, type);  // type last - a half-written slot still reads as empty
+                    return;
+                }
+            } finally {
+                compactionLock.readLock().unlock();
+            }
+            compact(false);
+        }
+    }
+
+    // Rewrites the log as: last cycle number + one snapshot per open cycle, then swaps files atomically
+    private void compact(boolean evenIfNotFull) {
+        compactionLock.writeLock().lock();
+        try {
+            if (!evenIfNotFull && position.get() + RECORD_SIZE <= capacity) {
+                return;  // another thread compacted while we waited for the lock
+            }
+            // Writers are locked out, so nothing lies beyond the reserved position
+            State state = scan((int) Math.min(position.get(), capacity));
+
+            long required = RECORD_SIZE;
+            for (PendingCycle pending : state.open.values()) {
+                required += 2L * RECORD_SIZE + roundToRecord(wordsFor(pending) * 8L);
+            }
+            int newCapacity = capacity;
+            while (required > newCapacity / 2) {
+                newCapacity *= 2;
+            }
+
+            Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+            try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
+                int at = writeRecord(target, 0, LAST_CYCLE, state.lastCycle, 0);
+                for (PendingCycle pending : state.open.values()) {
+                    at = writeRecord(target, at, CYCLE_START, pending.cycle(), pending.itemCount());
+                    long[] words = pending.done().toLongArray();
+                    at = writeRecord(target, at, SNAPSHOT, pending.cycle(), words.length);
+                    for (int i = 0; i < words.length; i++) {
+                        target.putLong(at + i * 8, words[i]);
+                    }
+                    at += (int) roundToRecord(words.length * 8L);
+                }
+                target.force();
+            }
+
+            channel.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            map(newCapacity);
+            position.set(required);
+            compactions.incrementAndGet();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Checkpoint compaction failed for " + file, e);
+        } finally {
+            compactionLock.writeLock().unlock();
+        }
+    }
+
+    private void map(int newCapacity) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
+        capacity = newCapacity;
+    }
+
+    // Reads the records up to limit; short runs of empty (zero) slots are skipped because concurrent
+    // writers may leave gaps, a run longer than MAX_GAP_SLOTS ends the scan
+    private State scan(int limit) {
+        State state = new State();
+        int offset = 0;
+        int emptyRun = 0;
+        while (offset + RECORD_SIZE <= limit) {
+            int type = buffer.getInt(offset);
+            int cycle = buffer.getInt(offset + 4);
+            long value = buffer.getLong(offset + 8);
+            offset += RECORD_SIZE;
+            if (type == 0) {
+                if (++emptyRun > MAX_GAP_SLOTS) {
+                    break;
+                }
+                continue;
+            }
+            emptyRun = 0;
+
+            switch (type) {
+                case CYCLE_START -> state.start(cycle, (int) value);
+                case TASK_DONE -> state.done(cycle, (int) value);
+                case CYCLE_END -> state.end(cycle);
+                case LAST_CYCLE -> state.lastCycle = Math.max(state.lastCycle, cycle);
+                case SNAPSHOT -> {
+                    long[] words = new long[(int) value];
+                    for (int i = 0; i < words.length; i++) {
+                        words[i] = buffer.getLong(offset + i * 8);
+                    }
+                    offset += (int) roundToRecord(words.length * 8L);
+                    state.snapshot(cycle, BitSet.valueOf(words));
+                }
+                default -> throw new IllegalStateException(
+                        "Corrupt checkpoint record type " + type + " at offset " + (offset - RECORD_SIZE));
+            }
+            state.end = offset;
+        }
+        return state;
+    }
+
+    private static int writeRecord(MappedByteBuffer target, int at, int type, int cycle, long value) {
+        target.putInt(at, type);
+        target.putInt(at + 4, cycle);
+        target.putLong(at + 8, value);
+        return at + RECORD_SIZE;
+    }
+
+    private static long wordsFor(PendingCycle pending) {
+        return pending.done().toLongArray().length;
+    }
+
+    private static long roundToRecord(long bytes) {
+        return (bytes + RECORD_SIZE - 1) / RECORD_SIZE * RECORD_SIZE;
+    }
+
+    // Mutable view built while scanning
+    private static class State {
+        private final Map<Integer, PendingCycle> open = new TreeMap<>();
+        private int lastCycle = 0;
+        private int end = 0;
+
+        void start(int cycle, int itemCount) {
+            open.put(cycle, new PendingCycle(cycle, itemCount, new BitSet(itemCount)));
+            lastCycle = Math.max(lastCycle, cycle);
+        }
+
+        void done(int cycle, int itemIndex) {
+            PendingCycle pending = open.get(cycle);
+            if (pending != null) {
+                pending.done().set(itemIndex);
+            }
+        }
+
+        void end(int cycle) {
+            open.remove(cycle);
+            lastCycle = Math.max(lastCycle, cycle);
+        }
+
+        void snapshot(int cycle, BitSet done) {
+            PendingCycle pending = open.get(cycle);
+            if (pending != null) {
+                pending.done().or(done);
+            }
+        }
+
+        Recovery toRecovery() {
+            return new Recovery(lastCycle, new ArrayList<>(open.values()));
+        }
+    }
+
+    record Recovery(int lastCycle, List<PendingCycle> pendingCycles) {
+    }
+
+    record PendingCycle(int cycle, int itemCount, BitSet done) {
+
+        int[] unfinishedItems() {
+            int[] unfinished = new int[itemCount - done.cardinality()];
+            int next = 0;
+            for (int i = done.nextClearBit(0); i < itemCount; i = done.nextClearBit(i + 1)) {
+                unfinished[next++] = i;
+            }
+            return unfinished;
+        }
+    }
+}
@@ -1,7 +1,17 @@
+import com.java.playground.metrics.LogHistogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class CompletableFutureEssentialDemo {
 
+    // Blocking stages go to virtual threads, CPU stages to a dedicated ForkJoinPool - not the common pool
+    private static final AsyncRouter router = new AsyncRouter();
+
     public static void main(String[] args) {
         System.out.println("=== CompletableFuture Essential Methods ===\n");
 
@@ -17,6 +27,10 @@ public class CompletableFutureEssentialDemo {
         // 4. Error Handling
         demonstrateErrorHandling();
 
+        // 5. Latency Control
+        demonstrateLatencyControl();
+
+        router.close();
         System.out.println("\n=== Demo Completed ===");
     }
 
@@ -26,15 +40,23 @@ public class CompletableFutureEssentialDemo {
     private static void demonstrateCreation() {
         System.out.println("--- 1. Creation Methods ---");
 
-        // supplyAsync - Most common way to create async task
-        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
+        // supplyAsync - Most common way to create async task (it sleeps, so it is routed as IO)
+        CompletableFuture<String> future = router.supplyIo(() -> {
             sleep(1000);
             return "Hello World";
         });
 
+        // Pure computation is routed as CPU
+        CompletableFuture<Integer> length = future.thenApplyAsync(String::length, router.executor(AsyncRouter.Kind.CPU));
 
+        // Misrouted: a blocking call on the CPU pool - the watchdog reports it
+        router.supplyCpu(() -> {
+            sleep(200);
+            return "misrouted";
+        }).join();
 
-        System.out.println("✅ Result: " + future.join());
+        System.out.println("✅ Result: " + future.join() + " (" + length.join() + " chars)");
+        System.out.println("⚠️  Blocking calls caught on the CPU pool: " + router.blockingWarnings());
         System.out.println();
     }
 
@@ -44,8 +66,8 @@ public class CompletableFutureEssentialDemo {
     private static void demonstrateTransformation() {
         System.out.println("--- 2. Transformation Methods ---");
 
-        CompletableFuture<String> future = CompletableFuture
-                .supplyAsync(() -> {
+        CompletableFuture<String> future = router
+                .supplyIo(() -> {
                     System.out.println("⚙️  Fetching data...");
                     sleep(1000);
                     return "john";
@@ -73,13 +95,13 @@ public class CompletableFutureEssentialDemo {
     private static void demonstrateCombining() {
         System.out.println("--- 3. Combining Futures ---");
 
-        CompletableFuture<String> future1 = CompletableFuture.supplyAsync(() -> {
+        CompletableFuture<String> future1 = router.supplyIo(() -> {
             System.out.println("⚙️  Task 1 running...");
             sleep(1000);
             return "Data1";
         });
 
-        CompletableFuture<String> future2 = CompletableFuture.supplyAsync(() -> {
+        CompletableFuture<String> future2 = router.supplyIo(() -> {
             System.out.println("⚙️  Task 2 running...");
             sleep(800);
             return "Data2";
@@ -91,17 +113,40 @@ public class CompletableFutureEssentialDemo {
         });
 
         System.out.println("✅ Combined: " + combined.join());
+
+        // Scatter-gather - the same idea over 200 shards; a few of them hang or fail
+        // The shards sleep, so they run on the IO executor; the gather interrupts the ones it no longer needs
+        Executor io = router.executor(AsyncRouter.Kind.IO);
+        System.out.println("🔀 Quorum 190 of 200: " + ScatterGather.gather(queryShards(200), io, 190, Duration.ofSeconds(1)).join());
+        System.out.println("🔀 All of 200 by 150ms: " + ScatterGather.allOf(queryShards(200), io, Duration.ofMillis(150)).join());
+        System.out.println("🔀 Any of 200: " + ScatterGather.anyOf(queryShards(200), io, Duration.ofSeconds(1)).join());
         System.out.println();
     }
 
+    // Shard i answers in 20-80ms; every 50th hangs for 2s and every 97th fails
+    private static List<Callable<String>> queryShards(int shards) {
+        List<Callable<String>> calls = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            int shard = i;
+            calls.add(() -> {
+                if (shard % 97 == 96) {
+                    throw new IllegalStateException("shard " + shard + " unavailable");
+                }
+                sleep(shard % 50 == 49 ? 2000 : ThreadLocalRandom.current().nextInt(20, 80));
+                return "rows from shard " + shard;
+            });
+        }
+        return calls;
+    }
+
     // ============================================
     // 4. Error Handling (Most Used)
     // ============================================
     private static void demonstrateErrorHandling() {
         System.out.println("--- 4. Error Handling ---");
 
-        CompletableFuture<String> withError = CompletableFuture
-                .supplyAsync(() -> {
+        CompletableFuture<String> withError = router
+                .supplyCpu(() -> {
                     System.out.println("⚙️  Risky operation...");
                     if (Math.random() > 0.5) {
                         throw new RuntimeException("Something went wrong!");
@@ -118,6 +163,89 @@ public class CompletableFutureEssentialDemo {
         System.out.println();
     }
 
+    // ============================================
+    // 5. Latency Control: Deadlines, Hedging, Bulkheads
+    // ============================================
+    private static final AtomicInteger priceCalls = new AtomicInteger();
+
+    private static void demonstrateLatencyControl() {
+        System.out.println("--- 5. Latency Control ---");
+
+        try (ResilientFutures.Bulkhead pricing = new ResilientFutures.Bulkhead("pricing", 8, 32);
+             ResilientFutures.Bulkhead inventory = new ResilientFutures.Bulkhead("inventory", 2, 2)) {
+
+            // Hedging: pricing answers in ~50ms, but every 25th call hangs for 400ms.
+            // The plain run also teaches the bulkhead pricing's p95, which is the hedge delay
+            LogHistogram.Snapshot plain = measure(() -> pricing.call(CompletableFutureEssentialDemo::fetchPrice), 32);
+            LogHistogram.Snapshot hedged = measure(
+                    () -> pricing.callHedged(CompletableFutureEssentialDemo::fetchPrice, Duration.ofMillis(20)), 32);
+            System.out.println("⏱️  Without hedging: " + plain.toMillisString());
+            System.out.println("⏱️  With hedging:    " + hedged.toMillisString());
+
+            // Deadline + bulkhead: 300ms per request; inventory's backend is stuck.
+            // Its 2 threads and 2 queue slots fill up, the rest are rejected at once,
+            // and every request still answers within its budget with a fallback
+            List<CompletableFuture<String>> requests = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 1; i <= 6; i++) {
+                int request = i;
+                ResilientFutures.Deadline deadline = ResilientFutures.Deadline.in(Duration.ofMillis(300));
+                CompletableFuture<String> price = deadline
+                        .bound(pricing.callHedged(CompletableFutureEssentialDemo::fetchPrice, Duration.ofMillis(20)), 0.5)
+                        .exceptionally(e -> "price unknown (" + cause(e) + ")");
+                CompletableFuture<String> stock = deadline
+                        .bound(inventory.call(CompletableFutureEssentialDemo::fetchStock))
+                        .exceptionally(e -> "stock unknown (" + cause(e) + ")");
+                requests.add(price.thenCombine(stock, (p, s) ->
+                        "Request " + request + ": " + p + ", " + s + " after " + millisSince(start) + "ms"));
+            }
+
+            // A stuck dependency does not reach the common pool
+            long commonStart = System.nanoTime();
+            CompletableFuture.supplyAsync(() -> "ok").join();
+            System.out.println("🟢 Common pool answered in " + millisSince(commonStart) + "ms");
+
+            requests.forEach(request -> System.out.println("✅ " + request.join()));
+            System.out.println("📊 " + pricing.stats());
+            System.out.println("📊 " + inventory.stats());
+        }
+        System.out.println();
+    }
+
+    // Runs the calls 8 at a time and returns their latency distribution
+    private static LogHistogram.Snapshot measure(Supplier<CompletableFuture<String>> call, int calls) {
+        LogHistogram latency = new LogHistogram();
+        for (int batch = 0; batch < calls; batch += 8) {
+            List<CompletableFuture<String>> inFlight = new ArrayList<>();
+            for (int i = batch; i < Math.min(calls, batch + 8); i++) {
+                long start = System.nanoTime();
+                inFlight.add(call.get().whenComplete((value, error) -> latency.record(System.nanoTime() - start)));
+            }
+            inFlight.forEach(CompletableFuture::join);
+        }
+        return latency.snapshot();
+    }
+
+    private static String fetchPrice() {
+        sleep(priceCalls.incrementAndGet() % 25 == 0 ? 400 : 50);
+        return "price 42.00";
+    }
+
+    private static String fetchStock() {
+        sleep(2000);
+        return "in stock";
+    }
+
+    private static String cause(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+        return cause.getClass().getSimpleName();
+    }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
     private static void sleep(int millis) {
         try {
             Thread.sleep(millis);
@@ -0,0 +1,39 @@
+import java.util.Arrays;
+
+// Per-cycle result: how many items ran, how long the cycle took, its tail latency and how many
+// chunks failed (their items are still counted, with whatever latency they had reached)
+record CycleStats(int cycle, int items, long elapsedNanos, long p50Nanos, long p99Nanos, long maxNanos,
+                  int failedChunks) {
+
+    static CycleStats of(int cycle, long[] latencies, long elapsedNanos, int failedChunks) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return new CycleStats(cycle, sorted.length, elapsedNanos,
+                percentile(sorted, 0.50), percentile(sorted, 0.99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1], failedChunks);
+    }
+
+    boolean failed() {
+        return failedChunks > 0;
+    }
+
+    double throughputPerSecond() {
+        return elapsedNanos == 0 ? 0 : items * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Cycle %d: %d items in %d ms (%.0f items/s, p50=%.2f ms, p99=%.2f ms, max=%.2f ms)%s",
+                cycle, items, elapsedNanos / 1_000_000, throughputPerSecond(),
+                p50Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6,
+                failed() ? " - " + failedChunks + " chunk(s) failed" : "");
+    }
+}
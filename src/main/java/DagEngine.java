@@ -0,0 +1,213 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Small DAG runner on CompletableFuture. Stages declare their inputs instead of reading shared fields:
+// a stage starts as soon as all of its inputs are done, independent stages run in parallel on the
+// executor, and each output is passed on as a value (use immutable types - they are shared).
+// Inputs must be declared before the stages that use them, so the graph cannot have cycles.
+// Every run reports per-stage timing and its critical path: the chain of stages that decided
+// the total time - the one to speed up.
+class DagEngine {
+
+    private final Executor executor;
+    private final List<Stage<?>> stages = new ArrayList<>();
+
+    DagEngine(Executor executor) {
+        this.executor = executor;
+    }
+
+    // Handle for a declared stage; also the typed key for reading its value from a Run
+    static final class Stage<T> {
+        private final String name;
+        private final List<Stage<?>> inputs;
+        private final Function<Inputs, T> body;
+
+        private Stage(String name, List<Stage<?>> inputs, Function<Inputs, T> body) {
+            this.name = name;
+            this.inputs = inputs;
+            this.body = body;
+        }
+
+        String name() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    // Values of a stage's declared inputs
+    static final class Inputs {
+        private final Map<Stage<?>, Object> values;
+
+        private Inputs(Map<Stage<?>, Object> values) {
+            this.values = values;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T get(Stage<T> stage) {
+            if (!values.containsKey(stage)) {
+                throw new IllegalArgumentException(stage + " is not a declared input");
+            }
+            return (T) values.get(stage);
+        }
+    }
+
+    // ---- declaring stages ----
+
+    <T> Stage<T> stage(String name, Supplier<T> body) {
+        return add(name, List.of(), inputs -> body.get());
+    }
+
+    <A, T> Stage<T> stage(String name, Stage<A> input, Function<A, T> body) {
+        return add(name, List.of(input), inputs -> body.apply(inputs.get(input)));
+    }
+
+    <A, B, T> Stage<T> stage(String name, Stage<A> first, Stage<B> second, BiFunction<A, B, T> body) {
+        return add(name, List.of(first, second), inputs -> body.apply(inputs.get(first), inputs.get(second)));
+    }
+
+    <T> Stage<T> stage(String name, Function<Inputs, T> body, Stage<?>... inputs) {
+        return add(name, List.of(inputs), body);
+    }
+
+    private synchronized <T> Stage<T> add(String name, List<Stage<?>> inputs, Function<Inputs, T> body) {
+        for (Stage<?> input : inputs) {
+            if (!stages.contains(input)) {
+                throw new IllegalArgumentException(name + ": input " + input + " is not a stage of this DAG");
+            }
+        }
+        if (stages.stream().anyMatch(stage -> stage.name.equals(name))) {
+            throw new IllegalArgumentException("Duplicate stage name " + name);
+        }
+        Stage<T> stage = new Stage<>(name, inputs, body);
+        stages.add(stage);
+        return stage;
+    }
+
+    // ---- running ----
+
+    // Starts every stage whose inputs are ready; the future completes when all stages have finished
+    CompletableFuture<Run> run() {
+        List<Stage<?>> plan;
+        synchronized (this) {
+            plan = List.copyOf(stages);
+        }
+        long runStart = System.nanoTime();
+        Map<Stage<?>, CompletableFuture<Object>> futures = new HashMap<>();
+        Map<Stage<?>, Timing> timings = new HashMap<>();
+        for (Stage<?> stage : plan) {
+            Timing timing = new Timing();
+            timings.put(stage, timing);
+            // Captured per stage: the futures map itself is still being filled while stages run
+            Map<Stage<?>, CompletableFuture<Object>> inputFutures = new HashMap<>();
+            stage.inputs.forEach(input -> inputFutures.put(input, futures.get(input)));
+            Function<Inputs, ?> body = stage.body;
+            CompletableFuture<Void> inputsReady =
+                    CompletableFuture.allOf(inputFutures.values().toArray(CompletableFuture[]::new));
+            futures.put(stage, inputsReady.thenApplyAsync(ignored -> {
+                Map<Stage<?>, Object> values = new HashMap<>();
+                inputFutures.forEach((input, future) -> values.put(input, future.join()));
+                timing.start = System.nanoTime() - runStart;
+                try {
+                    return (Object) body.apply(new Inputs(values));
+                } catch (RuntimeException e) {
+                    throw new CompletionException("Stage " + stage.name + " failed", e);
+                } finally {
+                    timing.end = System.nanoTime() - runStart;
+                }
+            }, executor));
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            Map<Stage<?>, Object> values = new LinkedHashMap<>();
+            List<StageTiming> stageTimings = new ArrayList<>();
+            for (Stage<?> stage : plan) {
+                values.put(stage, futures.get(stage).join());
+                Timing timing = timings.get(stage);
+                stageTimings.add(new StageTiming(stage.name, nanosToMillis(timing.start),
+                        nanosToMillis(timing.end - timing.start)));
+            }
+            return new Run(Collections.unmodifiableMap(values), stageTimings, criticalPath(plan, timings),
+                    nanosToMillis(System.nanoTime() - runStart));
+        });
+    }
+
+    // Walk back from the stage that finished last, each time to the input that finished last:
+    // that input is what the stage was actually waiting for
+    private static List<String> criticalPath(List<Stage<?>> plan, Map<Stage<?>, Timing> timings) {
+        Stage<?> current = null;
+        for (Stage<?> stage : plan) {
+            if (current == null || timings.get(stage).end > timings.get(current).end) {
+                current = stage;
+            }
+        }
+        List<String> path = new ArrayList<>();
+        while (current != null) {
+            path.add(current.name);
+            Stage<?> latest = null;
+            for (Stage<?> input : current.inputs) {
+                if (latest == null || timings.get(input).end > timings.get(latest).end) {
+                    latest = input;
+                }
+            }
+            current = latest;
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private static long nanosToMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static final class Timing {
+        volatile long start;
+        volatile long end;
+    }
+
+    record StageTiming(String name, long startMs, long durationMs) {
+    }
+
+    record Run(Map<Stage<?>, Object> values, List<StageTiming> timings, List<String> criticalPath, long wallMs) {
+
+        @SuppressWarnings("unchecked")
+        <T> T get(Stage<T> stage) {
+            return (T) values.get(stage);
+        }
+
+        // Time if the stages had run one after another
+        long serialMs() {
+            return timings.stream().mapToLong(StageTiming::durationMs).sum();
+        }
+
+        long criticalPathMs() {
+            return timings.stream().filter(timing -> criticalPath.contains(timing.name()))
+                    .mapToLong(StageTiming::durationMs).sum();
+        }
+
+        String report() {
+            StringBuilder sb = new StringBuilder();
+            for (StageTiming timing : timings) {
+                sb.append(String.format("  %-18s start %5d ms, took %5d ms%s%n", timing.name(), timing.startMs(),
+                        timing.durationMs(), criticalPath.contains(timing.name()) ? "  <- critical path" : ""));
+            }
+            sb.append(String.format("  wall %d ms, critical path %d ms (%s), serial would be %d ms",
+                    wallMs, criticalPathMs(), String.join(" -> ", criticalPath), serialMs()));
+            return sb.toString();
+        }
+    }
+}
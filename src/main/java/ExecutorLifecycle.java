@@ -0,0 +1,252 @@
+import com.java.playground.metrics.InstrumentedExecutorService;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Shared shutdown for a group of executors, bounded by one deadline:
+//   Stage 1 - shutdown(): stop intake and let queued work drain (first 2/3 of the deadline)
+//   Stage 2 - shutdownNow(): take the tasks that never started, append them to a spill file for the
+//             operator and cancel the ones that are Futures, so nobody waits on them forever
+//   Stage 3 - wait what is left of the deadline for running tasks to react to the interrupt
+// Afterwards a report says how many tasks completed, were drained to the spill file or were abandoned.
+// installShutdownHook() runs the same sequence on Ctrl-C / SIGTERM, so a redeploy never loses queued work silently.
+// On the next start replay() re-submits the spilled tasks the application knows how to rebuild.
+class ExecutorLifecycle {
+
+    // Tasks that describe the work they stand for; other tasks are spilled via toString().
+    // submit() wraps a task in a FutureTask that hides this - hand Spillable tasks to execute().
+    // The futures of CompletableFuture.runAsync/supplyAsync tasks cannot be completed from outside
+    // either; a task that must fail its future on shutdown should be a CompletableFuture itself.
+    interface Spillable {
+        String spillRecord();
+    }
+
+    private final Map<String, ExecutorService> executors = new LinkedHashMap<>();
+    private final Duration deadline;
+    private final Path spillFile;
+
+    ExecutorLifecycle(Duration deadline, Path spillFile) {
+        this.deadline = deadline;
+        this.spillFile = spillFile;
+    }
+
+    public synchronized <E extends ExecutorService> E register(String name, E executor) {
+        if (executors.putIfAbsent(name, executor) != null) {
+            throw new IllegalArgumentException("Executor already registered: " + name);
+        }
+        return executor;
+    }
+
+    public ExecutorLifecycle installShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            Report report = shutdownAll();
+            if (!report.pools().isEmpty()) {
+                System.out.println(report);
+            }
+        }, "ExecutorLifecycle-ShutdownHook"));
+        return this;
+    }
+
+    public Report shutdownAll() {
+        Map<String, ExecutorService> all;
+        synchronized (this) {
+            all = new LinkedHashMap<>(executors);
+            executors.clear();
+        }
+        return drain(all);
+    }
+
+    // The pool stays registered while it drains, so a shutdown hook firing meanwhile still covers it
+    public Report shutdown(String name) {
+        ExecutorService executor;
+        synchronized (this) {
+            executor = executors.get(name);
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("No executor registered as " + name);
+        }
+        Report report = drain(Map.of(name, executor));
+        synchronized (this) {
+            executors.remove(name, executor);
+        }
+        return report;
+    }
+
+    private Report drain(Map<String, ExecutorService> group) {
+        long start = System.nanoTime();
+        long deadlineAt = start + deadline.toNanos();
+        long drainUntil = start + deadline.toNanos() * 2 / 3;
+
+        // Stage 1: stop intake, let queued work finish
+        group.values().forEach(ExecutorService::shutdown);
+        awaitAll(group, drainUntil);
+
+        // Stage 2: hand unstarted tasks to the spill file, fail their futures
+        Map<String, Integer> drained = new LinkedHashMap<>();
+        for (Map.Entry<String, ExecutorService> entry : group.entrySet()) {
+            if (!entry.getValue().isTerminated()) {
+                List<Runnable> unstarted = entry.getValue().shutdownNow();
+                spill(entry.getKey(), unstarted);
+                for (Runnable task : unstarted) {
+                    if (task instanceof Future<?> future) {
+                        future.cancel(false);
+                    }
+                }
+                // A bare ForkJoinPool never returns its queued tasks - wrap it in InstrumentedExecutorService
+                drained.put(entry.getKey(), entry.getValue() instanceof ForkJoinPool ? -1 : unstarted.size());
+            }
+        }
+
+        // Stage 3: give interrupted tasks the rest of the deadline
+        awaitAll(group, deadlineAt);
+
+        List<PoolReport> pools = new ArrayList<>();
+        group.forEach((name, executor) -> pools.add(new PoolReport(name, completedCount(executor),
+                drained.getOrDefault(name, 0), stillRunning(executor), executor.isTerminated())));
+        return new Report(pools, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), spillFile);
+    }
+
+    private static void awaitAll(Map<String, ExecutorService> group, long untilNanos) {
+        for (ExecutorService executor : group.values()) {
+            long remaining = untilNanos - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            try {
+                executor.awaitTermination(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void spill(String pool, List<Runnable> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        List<String> lines = new ArrayList<>(tasks.size());
+        String now = Instant.now().toString();
+        for (Runnable task : tasks) {
+            String record = task instanceof Spillable spillable ? spillable.spillRecord() : String.valueOf(task);
+            lines.add(now + "\t" + pool + "\t" + record.replace('\n', ' '));
+        }
+        try {
+            Files.write(spillFile, lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            // Never fail a shutdown because of the spill file - print the tasks instead
+            System.err.println("Cannot write spill file " + spillFile + ": " + e.getMessage());
+            lines.forEach(System.err::println);
+        }
+    }
+
+    // Re-submits the spilled tasks that 'decoder' can rebuild from their record (null = cannot) and
+    // rewrites the spill file with the rest, so nothing is replayed twice. Returns how many were re-submitted.
+    static int replay(Path spillFile, Function<String, Runnable> decoder, Executor executor) {
+        if (!Files.exists(spillFile)) {
+            return 0;
+        }
+        List<String> kept = new ArrayList<>();
+        int replayed = 0;
+        try {
+            for (String line : Files.readAllLines(spillFile, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t", 3);
+                Runnable task = fields.length == 3 ? decoder.apply(fields[2]) : null;
+                if (task == null) {
+                    kept.add(line);
+                    continue;
+                }
+                try {
+                    executor.execute(task);
+                    replayed++;
+                } catch (RejectedExecutionException e) {
+                    kept.add(line);
+                }
+            }
+            if (kept.isEmpty()) {
+                Files.delete(spillFile);
+            } else {
+                Path rewritten = spillFile.resolveSibling(spillFile.getFileName() + ".tmp");
+                Files.write(rewritten, kept, StandardCharsets.UTF_8);
+                Files.move(rewritten, spillFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            // The tasks already re-submitted stay in the file and may run again on the next start
+            System.err.println("Cannot replay spill file " + spillFile + ": " + e.getMessage());
+        }
+        return replayed;
+    }
+
+    private static long completedCount(ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor pool) {
+            return pool.getCompletedTaskCount();
+        }
+        if (executor instanceof InstrumentedExecutorService pool) {
+            return pool.getCompleted() + pool.getFailed();
+        }
+        return -1;
+    }
+
+    private static int stillRunning(ExecutorService executor) {
+        if (executor.isTerminated()) {
+            return 0;
+        }
+        if (executor instanceof ThreadPoolExecutor pool) {
+            return pool.getActiveCount();
+        }
+        if (executor instanceof InstrumentedExecutorService pool) {
+            return pool.getRunning();
+        }
+        if (executor instanceof ForkJoinPool pool) {
+            return pool.getActiveThreadCount();
+        }
+        return -1;
+    }
+
+    // -1 means the executor type does not expose that number
+    record PoolReport(String name, long completed, int drained, int abandoned, boolean terminated) {
+    }
+
+    record Report(List<PoolReport> pools, long elapsedMs, Path spillFile) {
+
+        int totalDrained() {
+            return pools.stream().mapToInt(PoolReport::drained).filter(drained -> drained > 0).sum();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("--- Shutdown report (" + elapsedMs + "ms) ---\n");
+            for (PoolReport pool : pools) {
+                sb.append(String.format("%-20s completed=%s drained=%s abandoned=%s %s%n",
+                        pool.name(),
+                        pool.completed() < 0 ? "n/a" : pool.completed(),
+                        pool.drained() < 0 ? "n/a" : pool.drained(),
+                        pool.abandoned() < 0 ? "n/a" : pool.abandoned(),
+                        pool.terminated() ? "terminated" : "STILL RUNNING"));
+            }
+            if (totalDrained() > 0) {
+                sb.append(totalDrained()).append(" unstarted task(s) written to ").append(spillFile).append('\n');
+            }
+            return sb.toString();
+        }
+    }
+}
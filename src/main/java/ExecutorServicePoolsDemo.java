@@ -1,3 +1,5 @@
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -5,6 +7,10 @@ public class ExecutorServicePoolsDemo {
     private static AtomicInteger taskCounter = new AtomicInteger(0);
     private static AtomicInteger delayTaskCounter = new AtomicInteger(0);
 
+    // Every pool is registered here - drained against one deadline at the end (or on Ctrl-C)
+    private static final ExecutorLifecycle LIFECYCLE =
+            new ExecutorLifecycle(Duration.ofSeconds(10), Path.of("executor-spill.log")).installShutdownHook();
+
     public static void main(String[] args) {
         System.out.println("=== ExecutorService Thread Pool Types Demo ===\n");
 
@@ -23,6 +29,9 @@ public class ExecutorServicePoolsDemo {
         // 4. Scheduled Thread Pool
         demonstrateScheduledThreadPool();
         sleep(8000);
+
+        // Wait for every pool to finish (bounded) and report what happened to the tasks
+        System.out.println(LIFECYCLE.shutdownAll());
     }
 
     // 1. FIXED THREAD POOL
@@ -32,7 +41,7 @@ public class ExecutorServicePoolsDemo {
         System.out.println("- Reuses threads from pool");
         System.out.println("- Good for CPU-intensive tasks\n");
 
-        ExecutorService fixedPool = Executors.newFixedThreadPool(3);
+        ExecutorService fixedPool = LIFECYCLE.register("FixedPool", Executors.newFixedThreadPool(3));
 
         // Submit 6 tasks to 3-thread pool
         for (int i = 1; i <= 6; i++) {
@@ -55,7 +64,7 @@ public class ExecutorServicePoolsDemo {
         System.out.println("- Reuses idle threads (60s timeout)");
         System.out.println("- Good for short-lived async tasks\n");
 
-        ExecutorService cachedPool = Executors.newCachedThreadPool();
+        ExecutorService cachedPool = LIFECYCLE.register("CachedPool", Executors.newCachedThreadPool());
 
         // Submit 4 tasks quickly
         for (int i = 1; i <= 4; i++) {
@@ -78,7 +87,7 @@ public class ExecutorServicePoolsDemo {
         System.out.println("- Tasks execute sequentially (FIFO)");
         System.out.println("- Good for sequential processing\n");
 
-        ExecutorService singlePool = Executors.newSingleThreadExecutor();
+        ExecutorService singlePool = LIFECYCLE.register("SingleThread", Executors.newSingleThreadExecutor());
 
         // Submit 4 tasks - they'll run one by one
         for (int i = 1; i <= 4; i++) {
@@ -101,7 +110,8 @@ public class ExecutorServicePoolsDemo {
         System.out.println("- Supports delays and periodic execution");
         System.out.println("- Good for recurring tasks\n");
 
-        ScheduledExecutorService scheduledPool = Executors.newScheduledThreadPool(3);
+        ScheduledExecutorService scheduledPool =
+                LIFECYCLE.register("ScheduledPool", Executors.newScheduledThreadPool(3));
 
         // Schedule a one-time task with delay
         scheduledPool.schedule(() -> {
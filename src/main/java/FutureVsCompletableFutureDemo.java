@@ -43,10 +43,11 @@
          // ============================================
          System.out.println("--- Part 2: CompletableFuture ---\n");
 
-         try {
+         // The task sleeps, so it runs on a virtual thread rather than the common pool
+         try (AsyncRouter router = new AsyncRouter()) {
              System.out.println("📌 Starting async task...");
 
-             CompletableFuture<String> completableFuture = CompletableFuture.supplyAsync(() -> {
+             CompletableFuture<String> completableFuture = router.supplyIo(() -> {
                  System.out.println("⚙️  Working on task...");
                  try {
                      Thread.sleep(2000); // 2 seconds work
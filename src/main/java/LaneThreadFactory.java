@@ -0,0 +1,146 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// ThreadFactory that puts every worker of a pool into a named "lane":
+// - threads are named <pool>-<lane>-<n>, so thread dumps and profilers show which lane is busy
+// - a lane can be pinned to a CPU set ("0-1", "2,3") with Linux taskset; anywhere else this is a no-op
+// - CPU time of the lane's threads is tracked through ThreadMXBean
+// - uncaught exceptions are counted per exception type instead of only being printed
+// Pin noisy batch lanes away from latency-sensitive ones to keep them from sharing cores.
+class LaneThreadFactory implements ThreadFactory {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static volatile boolean affinityAvailable =
+            System.getProperty("os.name", "").toLowerCase().contains("linux") &&
+                    Files.exists(Path.of("/proc/thread-self"));
+
+    private final String poolName;
+    private final String lane;
+    private final String cpuSet;
+    private final boolean daemon;
+    private final int priority;
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    private final Set<Thread> liveThreads = ConcurrentHashMap.newKeySet();
+    private final LongAdder retiredCpuNanos = new LongAdder();
+    private final LongAdder pinned = new LongAdder();
+    private final Map<String, LongAdder> uncaught = new ConcurrentHashMap<>();
+
+    LaneThreadFactory(String poolName, String lane) {
+        this(poolName, lane, null, false, Thread.NORM_PRIORITY);
+    }
+
+    // cpuSet in taskset list format, or null to leave scheduling to the OS
+    LaneThreadFactory(String poolName, String lane, String cpuSet, boolean daemon, int priority) {
+        this.poolName = poolName;
+        this.lane = lane;
+        this.cpuSet = cpuSet;
+        this.daemon = daemon;
+        this.priority = priority;
+        if (THREADS.isThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        Runnable body = () -> {
+            pinCurrentThread();
+            try {
+                r.run();
+            } finally {
+                // Keep the CPU time of threads that retire (keep-alive timeout, pool shrink)
+                long cpu = THREADS.getCurrentThreadCpuTime();
+                if (cpu > 0) {
+                    retiredCpuNanos.add(cpu);
+                }
+                liveThreads.remove(Thread.currentThread());
+            }
+        };
+
+        Thread thread = new Thread(body, poolName + "-" + lane + "-" + threadNumber.getAndIncrement());
+        thread.setDaemon(daemon);
+        thread.setPriority(priority);
+        thread.setUncaughtExceptionHandler(this::onUncaughtException);
+        liveThreads.add(thread);
+        return thread;
+    }
+
+    private void onUncaughtException(Thread thread, Throwable error) {
+        uncaught.computeIfAbsent(error.getClass().getSimpleName(), k -> new LongAdder()).increment();
+        System.err.println("Uncaught in " + thread.getName() + ": " + error);
+    }
+
+    // taskset works on Linux thread ids, which /proc/thread-self exposes as "<pid>/task/<tid>"
+    private void pinCurrentThread() {
+        if (cpuSet == null || !affinityAvailable) {
+            return;
+        }
+        try {
+            String self = Files.readSymbolicLink(Path.of("/proc/thread-self")).toString();
+            String tid = self.substring(self.lastIndexOf('/') + 1);
+            Process taskset = new ProcessBuilder("taskset", "-pc", cpuSet, tid)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (taskset.waitFor(2, TimeUnit.SECONDS) && taskset.exitValue() == 0) {
+                pinned.increment();
+            } else {
+                taskset.destroy();
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            // No taskset or no /proc - run unpinned from now on
+            affinityAvailable = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Total CPU time of this lane: live threads plus the ones that already exited
+    long cpuTimeNanos() {
+        long total = retiredCpuNanos.sum();
+        for (Thread thread : liveThreads) {
+            long cpu = THREADS.getThreadCpuTime(thread.threadId());
+            if (cpu > 0) {
+                total += cpu;
+            }
+        }
+        return total;
+    }
+
+    Map<String, Long> cpuTimePerThreadMillis() {
+        Map<String, Long> perThread = new TreeMap<>();
+        for (Thread thread : liveThreads) {
+            long cpu = THREADS.getThreadCpuTime(thread.threadId());
+            if (cpu >= 0) {
+                perThread.put(thread.getName(), cpu / 1_000_000);
+            }
+        }
+        return perThread;
+    }
+
+    long uncaughtExceptions() {
+        return uncaught.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    String stats() {
+        Map<String, Long> failures = new TreeMap<>();
+        uncaught.forEach((type, count) -> failures.put(type, count.sum()));
+        return poolName + "-" + lane +
+                ": cpuSet=" + (cpuSet == null ? "any" : cpuSet) +
+                ", pinnedThreads=" + pinned.sum() +
+                ", cpuTimeMs=" + cpuTimeNanos() / 1_000_000 +
+                ", uncaught=" + failures;
+    }
+}
@@ -0,0 +1,139 @@
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Drives a BatchProcessor at a fixed rate and applies an OverlapPolicy when cycles overrun.
+// All scheduling state lives on the single scheduler thread - cycle completions hop back onto it.
+class OverlapAwareScheduler {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "BatchScheduler-Ticker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final BatchProcessor processor;
+    private final OverlapPolicy policy;
+    private final int maxConcurrentCycles;
+    private final long periodNanos;
+
+    // Scheduler-thread state
+    private int inFlight = 0;
+    private boolean pendingRun = false;
+    private boolean fixedDelayMode = false;
+
+    // Metrics - one counter per decision
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rejectedAtLimit = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong switchedToFixedDelay = new AtomicLong();
+    private final AtomicLong switchedToFixedRate = new AtomicLong();
+    private final AtomicLong lastCycleNanos = new AtomicLong();
+
+    public OverlapAwareScheduler(BatchProcessor processor, OverlapPolicy policy, int maxConcurrentCycles,
+                                 long period, TimeUnit unit) {
+        if (maxConcurrentCycles <= 0) {
+            throw new IllegalArgumentException("maxConcurrentCycles must be positive: " + maxConcurrentCycles);
+        }
+        this.processor = processor;
+        this.policy = policy;
+        this.maxConcurrentCycles = maxConcurrentCycles;
+        this.periodNanos = unit.toNanos(period);
+    }
+
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::tick, 0, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Stops ticking and drops any delayed launch - cycles already running finish on the workers
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void tick() {
+        ticks.incrementAndGet();
+        if (inFlight == 0) {
+            if (!fixedDelayMode) {
+                launch();
+            }
+            return;
+        }
+
+        switch (policy) {
+            case SKIP -> skipped.incrementAndGet();
+            case COALESCE -> {
+                coalesced.incrementAndGet();
+                pendingRun = true;
+            }
+            case CONCURRENT -> {
+                if (inFlight < maxConcurrentCycles) {
+                    launch();
+                } else {
+                    rejectedAtLimit.incrementAndGet();
+                }
+            }
+            case ADAPTIVE -> {
+                if (!fixedDelayMode) {
+                    fixedDelayMode = true;
+                    switchedToFixedDelay.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void launch() {
+        inFlight++;
+        started.incrementAndGet();
+        CompletableFuture<CycleStats> cycle;
+        try {
+            cycle = processor.runCycle();
+        } catch (RuntimeException e) {
+            // e.g. the worker pool is shut down - an exception escaping tick() would cancel the schedule
+            inFlight--;
+            failed.incrementAndGet();
+            // Nothing in flight to hand the next launch to, so let the fixed-rate ticks retry
+            fixedDelayMode = false;
+            System.out.println("Cycle failed to start: " + e);
+            return;
+        }
+        cycle.whenCompleteAsync((stats, error) -> onCycleDone(stats, error), scheduler);
+    }
+
+    private void onCycleDone(CycleStats stats, Throwable error) {
+        inFlight--;
+        // A cycle whose chunks threw still completes normally, with the failures in its stats
+        if (error != null || stats.failed()) {
+            failed.incrementAndGet();
+        }
+        long elapsed = stats == null ? periodNanos + 1 : stats.elapsedNanos();
+        lastCycleNanos.set(elapsed);
+
+        if (policy == OverlapPolicy.COALESCE && pendingRun) {
+            pendingRun = false;
+            launch();
+        } else if (policy == OverlapPolicy.ADAPTIVE && fixedDelayMode) {
+            if (elapsed <= periodNanos) {
+                // Cycles fit in the period again - let the fixed-rate ticks take over
+                fixedDelayMode = false;
+                switchedToFixedRate.incrementAndGet();
+            } else {
+                scheduler.schedule(this::launch, periodNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    public String metrics() {
+        return "policy=" + policy +
+                ", ticks=" + ticks.get() +
+                ", started=" + started.get() +
+                ", skipped=" + skipped.get() +
+                ", coalesced=" + coalesced.get() +
+                ", rejectedAtLimit=" + rejectedAtLimit.get() +
+                ", failed=" + failed.get() +
+                ", switchedToFixedDelay=" + switchedToFixedDelay.get() +
+                ", switchedToFixedRate=" + switchedToFixedRate.get() +
+                ", lastCycleMs=" + lastCycleNanos.get() / 1_000_000;
+    }
+}
@@ -0,0 +1,7 @@
+// What to do when a tick fires while the previous cycle is still running
+enum OverlapPolicy {
+    SKIP,        // drop the tick
+    COALESCE,    // remember missed ticks, run once as soon as the current cycle ends
+    CONCURRENT,  // start another cycle, up to maxConcurrentCycles
+    ADAPTIVE     // fall back to fixed-delay while cycles overrun, back to fixed-rate once they fit
+}
@@ -0,0 +1,133 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
+
+// Stage-synchronized parallel computation (BSP style): every participant works on phase p,
+// contributes a partial result and waits; when the last one arrives the partial results are reduced,
+// the reduced value is handed to everyone, and all of them start phase p + 1 together.
+// - participants can join and leave between phases (a CyclicBarrier has a fixed party count)
+// - parties are spread over a tree of Phasers, at most partiesPerLeaf per leaf, so thousands of
+//   parties do not all update one Phaser's state word; only the leaves register with the root
+// - contributions are combined per leaf as they arrive, and across leaves once per phase
+// - continueAfter(phase, reduced) decides whether another phase runs
+class PhasedComputation<T> {
+
+    private final T identity;
+    private final BinaryOperator<T> reducer;
+    private final BiPredicate<Integer, T> continueAfter;
+    private final int partiesPerLeaf;
+
+    private final Phaser root;
+    private final List<Leaf<T>> leaves = new CopyOnWriteArrayList<>();
+    private volatile T lastResult;
+
+    PhasedComputation(T identity, BinaryOperator<T> reducer, BiPredicate<Integer, T> continueAfter) {
+        this(identity, reducer, continueAfter, 16);
+    }
+
+    PhasedComputation(T identity, BinaryOperator<T> reducer, BiPredicate<Integer, T> continueAfter,
+                      int partiesPerLeaf) {
+        if (partiesPerLeaf < 1) {
+            throw new IllegalArgumentException("partiesPerLeaf must be positive, got " + partiesPerLeaf);
+        }
+        this.identity = identity;
+        this.reducer = reducer;
+        this.continueAfter = continueAfter;
+        this.partiesPerLeaf = partiesPerLeaf;
+        this.lastResult = identity;
+        this.root = new Phaser() {
+            // Runs once per phase, in the thread that completed it, before anyone is released
+            @Override
+            protected boolean onAdvance(int phase, int registeredParties) {
+                T reduced = identity;
+                for (Leaf<T> leaf : leaves) {
+                    reduced = reducer.apply(reduced, leaf.partial.getAndSet(identity));
+                }
+                lastResult = reduced;
+                return registeredParties == 0 || !continueAfter.test(phase, reduced);
+            }
+        };
+    }
+
+    // Plain phase barrier without a reduction, for a fixed number of phases
+    static PhasedComputation<Void> phases(int count) {
+        return new PhasedComputation<>(null, (a, b) -> null, (phase, ignored) -> phase + 1 < count);
+    }
+
+    // Registers a party for the current phase; it must arrive (or leave) in every phase from now on
+    public synchronized Participant register() {
+        if (root.isTerminated()) {
+            throw new IllegalStateException("Computation already finished");
+        }
+        for (Leaf<T> leaf : leaves) {
+            if (leaf.phaser.getRegisteredParties() < partiesPerLeaf) {
+                leaf.phaser.register();
+                return new Participant(leaf);
+            }
+        }
+        // A child Phaser registers itself with the root when it gets its first party
+        Leaf<T> leaf = new Leaf<>(new Phaser(root), identity);
+        leaf.phaser.register();
+        leaves.add(leaf);
+        return new Participant(leaf);
+    }
+
+    public int phase() {
+        return root.getPhase();
+    }
+
+    public boolean isTerminated() {
+        return root.isTerminated();
+    }
+
+    // Reduced value of the last completed phase
+    public T result() {
+        return lastResult;
+    }
+
+    public int registeredParties() {
+        return leaves.stream().mapToInt(leaf -> leaf.phaser.getRegisteredParties()).sum();
+    }
+
+    public int leafCount() {
+        return leaves.size();
+    }
+
+    public final class Participant {
+
+        private final Leaf<T> leaf;
+
+        private Participant(Leaf<T> leaf) {
+            this.leaf = leaf;
+        }
+
+        // Contributes to the current phase and waits for the rest; returns the phase's reduced value
+        public T arriveAndAwait(T contribution) {
+            leaf.partial.accumulateAndGet(contribution, reducer);
+            leaf.phaser.arriveAndAwaitAdvance();
+            return lastResult;
+        }
+
+        // Leaves without contributing to the current phase
+        public void deregister() {
+            leaf.phaser.arriveAndDeregister();
+        }
+
+        public int phase() {
+            return leaf.phaser.getPhase();
+        }
+
+        public boolean isDone() {
+            return leaf.phaser.isTerminated();
+        }
+    }
+
+    private record Leaf<T>(Phaser phaser, AtomicReference<T> partial) {
+        Leaf(Phaser phaser, T identity) {
+            this(phaser, new AtomicReference<>(identity));
+        }
+    }
+}
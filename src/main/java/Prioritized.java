@@ -0,0 +1,25 @@
+// Anything that carries a scheduling priority - higher values run first and are shed last
+interface Prioritized {
+
+    int LOW = 1;
+    int NORMAL = 5;
+    int HIGH = 10;
+
+    int priority();
+
+    // Priority of any queued task - plain Runnables count as NORMAL
+    static int priorityOf(Object task) {
+        return task instanceof Prioritized prioritized ? prioritized.priority() : NORMAL;
+    }
+
+    static Runnable of(int priority, Runnable task) {
+        return new PrioritizedRunnable(priority, task);
+    }
+
+    record PrioritizedRunnable(int priority, Runnable task) implements Runnable, Prioritized {
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+}
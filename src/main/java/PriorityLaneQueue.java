@@ -0,0 +1,330 @@
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded work queue with priority lanes, a drop-in replacement for ArrayBlockingQueue in a ThreadPoolExecutor.
+// - lane 0 = interactive (priority >= HIGH), lane 1 = normal, lane 2 = batch (priority < NORMAL)
+// - lanes are served by smooth weighted round robin, so batch work keeps flowing, just less often
+// - aging: a lane whose head has waited longer than the aging threshold competes with the weight of the
+//   heaviest lane until it catches up - it gets more turns, but cannot take every turn from interactive work
+// One lock and two conditions, the same structure as ArrayBlockingQueue.
+class PriorityLaneQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    static final int INTERACTIVE = 0;
+    static final int NORMAL = 1;
+    static final int BATCH = 2;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final ArrayDeque<Entry>[] lanes;
+    private final int[] weights;
+    private final int agedWeight;
+    private final int[] credit;
+    private final int capacity;
+    private final long agingNanos;
+    private int count;
+
+    private final AtomicLong[] served;
+    private final AtomicLong agedPromotions = new AtomicLong();
+
+    PriorityLaneQueue(int capacity) {
+        this(capacity, new int[]{8, 3, 1}, 500, TimeUnit.MILLISECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    PriorityLaneQueue(int capacity, int[] laneWeights, long agingThreshold, TimeUnit unit) {
+        if (capacity <= 0 || laneWeights.length != 3) {
+            throw new IllegalArgumentException("Need a positive capacity and 3 lane weights");
+        }
+        this.capacity = capacity;
+        this.weights = laneWeights.clone();
+        this.agedWeight = Math.max(weights[INTERACTIVE], Math.max(weights[NORMAL], weights[BATCH]));
+        this.credit = new int[weights.length];
+        this.agingNanos = unit.toNanos(agingThreshold);
+        this.lanes = (ArrayDeque<Entry>[]) new ArrayDeque<?>[weights.length];
+        this.served = new AtomicLong[weights.length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ArrayDeque<>();
+            served[i] = new AtomicLong();
+        }
+    }
+
+    static int laneFor(Object task) {
+        int priority = Prioritized.priorityOf(task);
+        if (priority >= Prioritized.HIGH) {
+            return INTERACTIVE;
+        }
+        return priority >= Prioritized.NORMAL ? NORMAL : BATCH;
+    }
+
+    // ---- insertion ----
+
+    @Override
+    public boolean offer(Runnable task) {
+        lock.lock();
+        try {
+            if (count == capacity) {
+                return false;
+            }
+            enqueue(task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Runnable task) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == capacity) {
+                notFull.await();
+            }
+            enqueue(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        lanes[laneFor(task)].addLast(new Entry(task, System.nanoTime()));
+        count++;
+        notEmpty.signal();
+    }
+
+    // ---- removal ----
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return count == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            return count == 0 ? null : lanes[selectLane(false)].peekFirst().task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Runnable dequeue() {
+        int lane = selectLane(true);
+        Entry entry = lanes[lane].pollFirst();
+        count--;
+        served[lane].incrementAndGet();
+        notFull.signal();
+        return entry.task;
+    }
+
+    // Picks the lane to serve next by smooth weighted round robin over the non-empty lanes;
+    // only 'commit' updates the credits
+    private int selectLane(boolean commit) {
+        long now = System.nanoTime();
+        int[] scratch = commit ? credit : credit.clone();
+        int totalWeight = 0;
+        int best = -1;
+        boolean bestAged = false;
+        for (int i = 0; i < lanes.length; i++) {
+            Entry head = lanes[i].peekFirst();
+            if (head == null) {
+                continue;
+            }
+            // An aged head lifts its lane to the heaviest weight for this turn
+            boolean aged = now - head.enqueuedAt > agingNanos && weights[i] < agedWeight;
+            int weight = aged ? agedWeight : weights[i];
+            scratch[i] += weight;
+            totalWeight += weight;
+            if (best < 0 || scratch[i] > scratch[best]) {
+                best = i;
+                bestAged = aged;
+            }
+        }
+        scratch[best] -= totalWeight;
+        if (commit && bestAged) {
+            agedPromotions.incrementAndGet();
+        }
+        return best;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        lock.lock();
+        try {
+            for (ArrayDeque<Entry> lane : lanes) {
+                Iterator<Entry> it = lane.iterator();
+                while (it.hasNext()) {
+                    if (it.next().task.equals(o)) {
+                        it.remove();
+                        count--;
+                        notFull.signal();
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        lock.lock();
+        try {
+            int n = 0;
+            while (n < maxElements && count > 0) {
+                c.add(dequeue());
+                n++;
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---- inspection ----
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Weakly consistent: iterates a snapshot, removal goes back through remove(Object)
+    @Override
+    public Iterator<Runnable> iterator() {
+        List<Runnable> snapshot = new ArrayList<>();
+        lock.lock();
+        try {
+            for (ArrayDeque<Entry> lane : lanes) {
+                lane.forEach(entry -> snapshot.add(entry.task));
+            }
+        } finally {
+            lock.unlock();
+        }
+        Iterator<Runnable> it = snapshot.iterator();
+        return new Iterator<>() {
+            private Runnable last;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Runnable next() {
+                last = it.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                PriorityLaneQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    String stats() {
+        return "served interactive=" + served[INTERACTIVE].get() +
+                ", normal=" + served[NORMAL].get() +
+                ", batch=" + served[BATCH].get() +
+                ", agedPromotions=" + agedPromotions.get();
+    }
+
+    private record Entry(Runnable task, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.concurrent.*;
+
+// ThreadPoolExecutor that keeps the priority of submitted work.
+// submit() normally wraps tasks in a plain FutureTask, which hides Prioritized from the queue -
+// here the FutureTask carries the priority along so PriorityLaneQueue can route it and
+// BackpressurePolicies.ShedByPriorityPolicy can rank it.
+class PriorityThreadPoolExecutor extends ThreadPoolExecutor {
+
+    PriorityThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                               BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory,
+                               RejectedExecutionHandler handler) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+    }
+
+    public Future<?> submit(int priority, Runnable task) {
+        return submit(Prioritized.of(priority, task));
+    }
+
+    public <T> Future<T> submit(int priority, Callable<T> task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        PrioritizedFutureTask<T> future = new PrioritizedFutureTask<>(task, priority);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new PrioritizedFutureTask<>(Executors.callable(runnable, value), Prioritized.priorityOf(runnable));
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new PrioritizedFutureTask<>(callable, Prioritized.priorityOf(callable));
+    }
+
+    static class PrioritizedFutureTask<T> extends FutureTask<T> implements Prioritized {
+        private final int priority;
+
+        PrioritizedFutureTask(Callable<T> callable, int priority) {
+            super(callable);
+            this.priority = priority;
+        }
+
+        @Override
+        public int priority() {
+            return priority;
+        }
+    }
+}
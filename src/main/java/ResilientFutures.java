@@ -0,0 +1,179 @@
+import com.java.playground.metrics.LogHistogram;
+import com.java.playground.metrics.WindowedHistogram;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Latency control for CompletableFuture fan-out to slow dependencies:
+// - Deadline: one time budget per request; every stage gets orTimeout() with a share of what is left,
+//   so a slow first call cannot use up the time of the calls after it
+// - Bulkhead: a small dedicated pool per dependency with a bounded queue; when the backend hangs,
+//   its bulkhead fills up and rejects, the common pool and the other dependencies keep working
+// - hedging: when a call has not answered within the dependency's recent p95 latency (last minute,
+//   failed calls included), send the same call again and take whichever answers first - cuts the
+//   tail at the cost of ~5% extra calls
+final class ResilientFutures {
+
+    private ResilientFutures() {
+    }
+
+    static final class Deadline {
+        private final long deadlineNanos;
+
+        private Deadline(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        static Deadline in(Duration budget) {
+            return new Deadline(System.nanoTime() + budget.toNanos());
+        }
+
+        long remainingNanos() {
+            return Math.max(0, deadlineNanos - System.nanoTime());
+        }
+
+        boolean expired() {
+            return remainingNanos() == 0;
+        }
+
+        // Times the stage out when the whole budget is gone
+        <T> CompletableFuture<T> bound(CompletableFuture<T> stage) {
+            return bound(stage, 1.0);
+        }
+
+        // Times the stage out after 'share' (0..1] of the budget that is left right now
+        <T> CompletableFuture<T> bound(CompletableFuture<T> stage, double share) {
+            if (share <= 0 || share > 1) {
+                throw new IllegalArgumentException("share must be in (0, 1], got " + share);
+            }
+            long budget = Math.max(1, (long) (remainingNanos() * share));
+            return stage.orTimeout(budget, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    static final class Bulkhead implements AutoCloseable {
+        // Below this many samples the p95 is not trusted and the minimum hedge delay is used
+        private static final int MIN_SAMPLES = 20;
+
+        private final String name;
+        private final ThreadPoolExecutor pool;
+        // Where a hedge timer hands its attempt; a full bulkhead rejects it, which just means no hedge
+        private final Executor hedgeExecutor;
+        private final WindowedHistogram latency = new WindowedHistogram();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder hedgesSent = new LongAdder();
+        private final LongAdder hedgesWon = new LongAdder();
+
+        Bulkhead(String name, int maxConcurrent, int maxQueued) {
+            this.name = name;
+            AtomicInteger threadNumber = new AtomicInteger(1);
+            this.pool = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 30L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, maxQueued)),
+                    r -> {
+                        Thread thread = new Thread(r, "Bulkhead-" + name + "-" + threadNumber.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            this.hedgeExecutor = command -> {
+                try {
+                    pool.execute(command);
+                } catch (RejectedExecutionException e) {
+                    rejected.increment();
+                }
+            };
+        }
+
+        // Runs the call on this dependency's own threads; a full bulkhead fails fast instead of queueing
+        <T> CompletableFuture<T> call(Supplier<T> call) {
+            long start = System.nanoTime();
+            try {
+                return CompletableFuture.supplyAsync(() -> timed(call, start), pool);
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                return CompletableFuture.failedFuture(
+                        new RejectedExecutionException("Bulkhead " + name + " is full", e));
+            }
+        }
+
+        // Failed attempts are recorded too: a dependency that errors or times out slowly is slow
+        private <T> T timed(Supplier<T> call, long start) {
+            try {
+                return call.get();
+            } finally {
+                latency.record(System.nanoTime() - start);
+            }
+        }
+
+        // Like call(), plus one duplicate if the first attempt is slower than p95 (at least minDelay)
+        <T> CompletableFuture<T> callHedged(Supplier<T> call, Duration minDelay) {
+            LogHistogram recent = latency.merged();
+            long delay = Math.max(minDelay.toNanos(), recent.count() < MIN_SAMPLES ? 0 : recent.percentile(0.95));
+            CompletableFuture<T> result = new CompletableFuture<>();
+            AtomicInteger outstanding = new AtomicInteger(1);
+
+            CompletableFuture<T> primary = call(call);
+            complete(result, primary, outstanding, false);
+
+            // The hedge runs on this bulkhead's threads, not the common pool
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, hedgeExecutor).execute(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                outstanding.incrementAndGet();
+                hedgesSent.increment();
+                CompletableFuture<T> hedge = new CompletableFuture<>();
+                complete(result, hedge, outstanding, true);
+                try {
+                    hedge.complete(timed(call, System.nanoTime()));
+                } catch (Throwable e) {
+                    hedge.completeExceptionally(e);
+                }
+            });
+            // The loser keeps its thread until it returns, but nobody waits for it
+            result.whenComplete((value, error) -> primary.cancel(false));
+            return result;
+        }
+
+        // First success wins; the result fails only when every attempt has failed
+        private <T> void complete(CompletableFuture<T> result, CompletableFuture<T> attempt,
+                                  AtomicInteger outstanding, boolean isHedge) {
+            attempt.whenComplete((value, error) -> {
+                if (error == null) {
+                    if (result.complete(value) && isHedge) {
+                        hedgesWon.increment();
+                    }
+                } else if (outstanding.decrementAndGet() == 0) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+
+        LogHistogram.Snapshot latency() {
+            return latency.snapshot();
+        }
+
+        String stats() {
+            return name + ": active=" + pool.getActiveCount() +
+                    ", queued=" + pool.getQueue().size() +
+                    ", rejected=" + rejected.sum() +
+                    ", hedgesSent=" + hedgesSent.sum() +
+                    ", hedgesWon=" + hedgesWon.sum() +
+                    "\n  latency: " + latency.snapshot().toMillisString();
+        }
+
+        @Override
+        public void close() {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,329 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded multi-producer/multi-consumer ring buffer (Dmitry Vyukov's sequence-slot design).
+// - capacity is a power of two, so a position maps to its slot with a mask
+// - every slot carries a sequence number: seq == pos means "free for the producer of pos",
+//   seq == pos + 1 means "filled, ready for the consumer of pos"; one CAS on a cursor claims a slot
+// - the producer and consumer cursors, and the slot sequences, sit on separate cache lines
+// - what a blocked producer/consumer does is a WaitStrategy: SPIN, YIELD, PARK or BLOCK
+// put/take/offer/poll behave like the ones on BlockingQueue, without a lock on the fast path.
+class RingBuffer<E> extends RingBufferConsumerCursor {
+
+    enum WaitStrategy {
+        SPIN,   // busy-spin: lowest latency, burns a core per waiting thread
+        YIELD,  // spin briefly, then Thread.yield()
+        PARK,   // spin briefly, then parkNanos with growing sleeps up to 1ms
+        BLOCK   // spin briefly, then wait on a Condition and get signalled - gentlest on the CPU
+    }
+
+    private static final int SPINS = 100;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // 8 longs = 64 bytes between the sequences of two neighbouring slots
+    private static final int SEQ_STRIDE = 8;
+
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle ELEMENT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private final int mask;
+    private final long[] sequences;
+    private final Object[] elements;
+    private final WaitStrategy waitStrategy;
+
+    // Only used by WaitStrategy.BLOCK
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final AtomicInteger blockedThreads = new AtomicInteger();
+
+    RingBuffer(int capacity) {
+        this(capacity, WaitStrategy.BLOCK);
+    }
+
+    RingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two >= 2, got " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.sequences = new long[(capacity + 2) * SEQ_STRIDE];  // one stride of padding at each end
+        this.elements = new Object[capacity];
+        this.waitStrategy = waitStrategy;
+        for (int i = 0; i < capacity; i++) {
+            sequences[seqIndex(i)] = i;
+        }
+    }
+
+    private int seqIndex(long pos) {
+        return ((int) pos & mask) * SEQ_STRIDE + SEQ_STRIDE;
+    }
+
+    // ---- producer side ----
+
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        long pos = producerPosition();
+        while (true) {
+            long seq = (long) SEQUENCE.getAcquire(sequences, seqIndex(pos));
+            long diff = seq - pos;
+            if (diff == 0) {
+                if (casProducer(pos, pos + 1)) {
+                    break;
+                }
+                pos = producerPosition();
+            } else if (diff < 0) {
+                return false;  // the slot still holds the element from one lap ago - full
+            } else {
+                pos = producerPosition();  // another producer took this position
+            }
+        }
+        ELEMENT.set(elements, (int) pos & mask, element);
+        SEQUENCE.setRelease(sequences, seqIndex(pos), pos + 1);
+        wakeWaiters(notEmpty);
+        return true;
+    }
+
+    public void put(E element) throws InterruptedException {
+        for (int attempt = 0; !offer(element); attempt++) {
+            idle(attempt, notFull, false, Long.MAX_VALUE);
+        }
+    }
+
+    public boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; !offer(element); attempt++) {
+            if (deadline - System.nanoTime() <= 0) {
+                return false;
+            }
+            idle(attempt, notFull, false, deadline);
+        }
+        return true;
+    }
+
+    // ---- consumer side ----
+
+    public E poll() {
+        long pos = consumerPosition();
+        while (true) {
+            long seq = (long) SEQUENCE.getAcquire(sequences, seqIndex(pos));
+            long diff = seq - (pos + 1);
+            if (diff == 0) {
+                if (casConsumer(pos, pos + 1)) {
+                    break;
+                }
+                pos = consumerPosition();
+            } else if (diff < 0) {
+                return null;  // not filled yet - empty
+            } else {
+                pos = consumerPosition();
+            }
+        }
+        E element = release(pos);
+        wakeWaiters(notFull);
+        return element;
+    }
+
+    public E take() throws InterruptedException {
+        E element;
+        for (int attempt = 0; (element = poll()) == null; attempt++) {
+            idle(attempt, notEmpty, true, Long.MAX_VALUE);
+        }
+        return element;
+    }
+
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        E element;
+        for (int attempt = 0; (element = poll()) == null; attempt++) {
+            if (deadline - System.nanoTime() <= 0) {
+                return null;
+            }
+            idle(attempt, notEmpty, true, deadline);
+        }
+        return element;
+    }
+
+    // Claims up to maxElements filled slots with a single CAS, then copies them out
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        while (true) {
+            long pos = consumerPosition();
+            int ready = 0;
+            while (ready < maxElements && ready <= mask &&
+                    (long) SEQUENCE.getAcquire(sequences, seqIndex(pos + ready)) == pos + ready + 1) {
+                ready++;
+            }
+            if (ready == 0) {
+                return 0;
+            }
+            if (casConsumer(pos, pos + ready)) {
+                for (int i = 0; i < ready; i++) {
+                    target.add(release(pos + i));
+                }
+                wakeWaiters(notFull);
+                return ready;
+            }
+        }
+    }
+
+    public int drainTo(Collection<? super E> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private E release(long pos) {
+        int slot = (int) pos & mask;
+        E element = (E) ELEMENT.get(elements, slot);
+        ELEMENT.set(elements, slot, null);
+        // Hand the slot to the producer one lap ahead
+        SEQUENCE.setRelease(sequences, seqIndex(pos), pos + mask + 1);
+        return element;
+    }
+
+    // ---- waiting ----
+
+    private void idle(int attempt, Condition condition, boolean waitingForData, long deadline)
+            throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (waitStrategy == WaitStrategy.SPIN || attempt < SPINS) {
+            Thread.onSpinWait();
+            return;
+        }
+        switch (waitStrategy) {
+            case YIELD -> Thread.yield();
+            case PARK -> LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1L << Math.min(20, attempt - SPINS)));
+            case BLOCK -> block(condition, waitingForData, deadline);
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private void block(Condition condition, boolean waitingForData, long deadline) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            // Announce ourselves before the re-check; wakeWaiters() reads the count after publishing
+            blockedThreads.incrementAndGet();
+            try {
+                if (waitingForData ? isEmpty() : isFull()) {
+                    if (deadline == Long.MAX_VALUE) {
+                        condition.await();
+                    } else {
+                        condition.awaitNanos(deadline - System.nanoTime());
+                    }
+                }
+            } finally {
+                blockedThreads.decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void wakeWaiters(Condition condition) {
+        if (waitStrategy != WaitStrategy.BLOCK) {
+            return;
+        }
+        VarHandle.fullFence();  // order the slot publish before the read of blockedThreads
+        if (blockedThreads.get() > 0) {
+            lock.lock();
+            try {
+                condition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // ---- inspection ----
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    // Approximate while producers and consumers are active
+    public int size() {
+        while (true) {
+            long consumer = consumerPosition();
+            long producer = producerPosition();
+            if (consumer == consumerPosition()) {
+                return (int) Math.max(0, Math.min(producer - consumer, capacity()));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        long pos = consumerPosition();
+        return (long) SEQUENCE.getAcquire(sequences, seqIndex(pos)) != pos + 1;
+    }
+
+    public boolean isFull() {
+        long pos = producerPosition();
+        return (long) SEQUENCE.getAcquire(sequences, seqIndex(pos)) != pos;
+    }
+
+    WaitStrategy waitStrategy() {
+        return waitStrategy;
+    }
+}
+
+// ---- cursors, padded so producers and consumers don't invalidate each other's cache line ----
+
+abstract class RingBufferPad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class RingBufferProducerCursor extends RingBufferPad0 {
+    private static final VarHandle PRODUCER;
+
+    static {
+        try {
+            PRODUCER = MethodHandles.lookup().findVarHandle(RingBufferProducerCursor.class, "producer", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long producer;
+
+    final long producerPosition() {
+        return producer;
+    }
+
+    final boolean casProducer(long expected, long next) {
+        return PRODUCER.compareAndSet(this, expected, next);
+    }
+}
+
+abstract class RingBufferPad1 extends RingBufferProducerCursor {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class RingBufferConsumerCursor extends RingBufferPad1 {
+    private static final VarHandle CONSUMER;
+
+    static {
+        try {
+            CONSUMER = MethodHandles.lookup().findVarHandle(RingBufferConsumerCursor.class, "consumer", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long consumer;
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+
+    final long consumerPosition() {
+        return consumer;
+    }
+
+    final boolean casConsumer(long expected, long next) {
+        return CONSUMER.compareAndSet(this, expected, next);
+    }
+}
@@ -0,0 +1,238 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Scatter-gather over many shard calls, finishing as soon as the answer is good enough:
+// - results land in one pre-sized array, slot i for shard i, as each shard completes
+// - quorum: done once k of the n shards have answered (anyOf is k = 1, allOf is k = n)
+// - deadline: done at the deadline with whatever has arrived
+// - when done, the shards still running are interrupted, the ones not started never run,
+//   and late answers are dropped
+// Shards are Callables run on the given executor, and the gather keeps their Futures: cancelling
+// a CompletableFuture would only complete it, while its task went on running.
+// A missing shard is a null slot (so shards must not answer null); the caller decides whether a
+// partial answer is usable.
+final class ScatterGather {
+
+    enum Outcome { QUORUM, ALL_SETTLED, QUORUM_UNREACHABLE, DEADLINE }
+
+    // Marks a slot that was empty when the gather finished, so a late answer cannot fill it in
+    private static final Object MISSING = new Object();
+
+    private ScatterGather() {
+    }
+
+    // Waits for every shard to settle, or the deadline; a failed shard does not end it early
+    static <T> CompletableFuture<Result<T>> allOf(List<? extends Callable<? extends T>> shards, Executor executor,
+                                                  Duration deadline) {
+        return gather(shards, executor, shards.size(), deadline, false);
+    }
+
+    static <T> CompletableFuture<Result<T>> anyOf(List<? extends Callable<? extends T>> shards, Executor executor,
+                                                  Duration deadline) {
+        return gather(shards, executor, Math.min(1, shards.size()), deadline);
+    }
+
+    // Finishes early as soon as so many shards failed that the quorum can no longer be met
+    static <T> CompletableFuture<Result<T>> gather(List<? extends Callable<? extends T>> shards, Executor executor,
+                                                   int quorum, Duration deadline) {
+        return gather(shards, executor, quorum, deadline, true);
+    }
+
+    private static <T> CompletableFuture<Result<T>> gather(List<? extends Callable<? extends T>> shards,
+                                                           Executor executor, int quorum, Duration deadline,
+                                                           boolean failFast) {
+        if (quorum < 0 || quorum > shards.size()) {
+            throw new IllegalArgumentException("quorum must be in [0, " + shards.size() + "], got " + quorum);
+        }
+        Gather<T> gather = new Gather<>(shards.size(), quorum, failFast);
+        if (quorum == 0) {
+            gather.finish(Outcome.QUORUM);
+            return gather.result;
+        }
+        // Every task exists before the first one runs, so a gather that finishes early reaches them all
+        for (int i = 0; i < shards.size(); i++) {
+            gather.tasks.add(new Shard<>(shards.get(i), gather, i));
+        }
+        for (Shard<T> shard : gather.tasks) {
+            try {
+                executor.execute(shard);
+            } catch (RejectedExecutionException e) {
+                shard.cancel(false);
+                gather.onShard(shard.index, null, e);
+            }
+        }
+        CompletableFuture.delayedExecutor(deadline.toNanos(), TimeUnit.NANOSECONDS)
+                .execute(() -> gather.finish(Outcome.DEADLINE));
+        // Cancelling the gather cancels the shards as well
+        gather.result.whenComplete((result, error) -> gather.cancelStragglers());
+        return gather.result;
+    }
+
+    // Reports its outcome to the gather when it completes; a cancelled shard reports nothing
+    private static final class Shard<T> extends FutureTask<T> {
+        final Gather<T> gather;
+        final int index;
+
+        @SuppressWarnings("unchecked")
+        Shard(Callable<? extends T> call, Gather<T> gather, int index) {
+            super((Callable<T>) call);
+            this.gather = gather;
+            this.index = index;
+        }
+
+        @Override
+        protected void done() {
+            switch (state()) {
+                case SUCCESS -> gather.onShard(index, resultNow(), null);
+                case FAILED -> gather.onShard(index, null, exceptionNow());
+                default -> {
+                }
+            }
+        }
+    }
+
+    private static final class Gather<T> {
+        final List<Shard<T>> tasks;
+        final int shardCount;
+        final int quorum;
+        final boolean failFast;
+        final AtomicReferenceArray<Object> slots;
+        final AtomicInteger succeeded = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicBoolean finished = new AtomicBoolean();
+        final CompletableFuture<Result<T>> result = new CompletableFuture<>();
+        final long startNanos = System.nanoTime();
+
+        Gather(int shardCount, int quorum, boolean failFast) {
+            this.tasks = new ArrayList<>(shardCount);
+            this.shardCount = shardCount;
+            this.quorum = quorum;
+            this.failFast = failFast;
+            this.slots = new AtomicReferenceArray<>(shardCount);
+        }
+
+        void onShard(int shard, T value, Throwable error) {
+            if (finished.get()) {
+                return;
+            }
+            if (error == null) {
+                // Loses against MISSING if the gather finished in the meantime
+                if (slots.compareAndSet(shard, null, value) && succeeded.incrementAndGet() >= quorum) {
+                    finish(Outcome.QUORUM);
+                    return;
+                }
+            } else if (shardCount - failed.incrementAndGet() < quorum && failFast) {
+                finish(Outcome.QUORUM_UNREACHABLE);
+                return;
+            }
+            if (succeeded.get() + failed.get() == shardCount) {
+                finish(Outcome.ALL_SETTLED);
+            }
+        }
+
+        void finish(Outcome outcome) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            // Seal the empty slots first; from here on the array no longer changes
+            int present = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.compareAndSet(i, null, MISSING) || slots.get(i) == MISSING) {
+                    continue;
+                }
+                present++;
+            }
+            int failures = failed.get();
+            int cancelled = cancelStragglers();
+            result.complete(new Result<>(slots, outcome, present >= quorum, present, failures, cancelled,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+        }
+
+        // Interrupts the shards still running and keeps the unstarted ones from running at all
+        int cancelStragglers() {
+            int cancelled = 0;
+            for (Shard<T> shard : tasks) {
+                if (shard.cancel(true)) {
+                    cancelled++;
+                }
+            }
+            return cancelled;
+        }
+    }
+
+    static final class Result<T> {
+        private final AtomicReferenceArray<Object> slots;
+        private final Outcome outcome;
+        private final boolean quorumMet;
+        private final int succeeded;
+        private final int failed;
+        private final int cancelled;
+        private final long elapsedMs;
+
+        private Result(AtomicReferenceArray<Object> slots, Outcome outcome, boolean quorumMet, int succeeded,
+                       int failed, int cancelled, long elapsedMs) {
+            this.slots = slots;
+            this.outcome = outcome;
+            this.quorumMet = quorumMet;
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.cancelled = cancelled;
+            this.elapsedMs = elapsedMs;
+        }
+
+        // Shard i's value, or null if it failed, was cancelled or missed the deadline
+        @SuppressWarnings("unchecked")
+        T get(int shard) {
+            Object value = slots.get(shard);
+            return value == MISSING ? null : (T) value;
+        }
+
+        boolean isPresent(int shard) {
+            return slots.get(shard) != MISSING;
+        }
+
+        int size() {
+            return slots.length();
+        }
+
+        Outcome outcome() {
+            return outcome;
+        }
+
+        boolean quorumMet() {
+            return quorumMet;
+        }
+
+        int succeeded() {
+            return succeeded;
+        }
+
+        int failed() {
+            return failed;
+        }
+
+        int cancelled() {
+            return cancelled;
+        }
+
+        long elapsedMs() {
+            return elapsedMs;
+        }
+
+        @Override
+        public String toString() {
+            return outcome + " after " + elapsedMs + "ms: " + succeeded + "/" + size() + " shards answered, " +
+                    failed + " failed, " + cancelled + " cancelled" + (quorumMet ? "" : " (quorum not met)");
+        }
+    }
+}
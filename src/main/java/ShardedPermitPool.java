@@ -0,0 +1,244 @@
+import com.java.playground.metrics.LogHistogram;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Counting semaphore for scarce resources (DB connections, file handles) that stays fast with many threads.
+// One Semaphore is a single contended counter; here the permits are split over shards and each thread
+// has a home shard, picked from its thread id the way LongAdder spreads its cells:
+// - acquire/release normally touch only the home shard's counter (its own cache line)
+// - when the home shard runs dry, permits are collected from the other shards
+// - weighted acquire(n) may take its permits from several shards
+// - threads that cannot get permits queue up and park; release() wakes one of them
+// - fair: newcomers may not take permits while others are queued (like new Semaphore(n, true))
+// Acquisitions that had to queue record their wait in a histogram; immediate grants are only counted,
+// so the fast path stays free of clock reads and shared counters.
+class ShardedPermitPool {
+
+    // 16 ints = 64 bytes between two shard counters
+    private static final int STRIDE = 16;
+
+    private final int totalPermits;
+    private final int shards;
+    private final AtomicIntegerArray permits;
+    private final boolean fair;
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    private final LogHistogram waitLatency = new LogHistogram();
+    private final LongAdder homeHits = new LongAdder();
+    private final LongAdder collected = new LongAdder();
+    private final LongAdder parked = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    ShardedPermitPool(int permits) {
+        this(permits, Runtime.getRuntime().availableProcessors(), false);
+    }
+
+    ShardedPermitPool(int permits, int shardHint, boolean fair) {
+        if (permits <= 0 || shardHint <= 0) {
+            throw new IllegalArgumentException("Need positive permits and shards, got " + permits + ", " + shardHint);
+        }
+        // Power of two for cheap home-shard selection, but never more shards than permits
+        int shardCount = Integer.highestOneBit(Math.min(permits, shardHint * 2 - 1));
+        this.totalPermits = permits;
+        this.shards = shardCount;
+        this.fair = fair;
+        this.permits = new AtomicIntegerArray((shardCount + 1) * STRIDE);
+        for (int i = 0; i < shardCount; i++) {
+            this.permits.set(slot(i), permits / shardCount + (i < permits % shardCount ? 1 : 0));
+        }
+    }
+
+    private static int slot(int shard) {
+        return (shard + 1) * STRIDE;
+    }
+
+    private int homeShard() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & (shards - 1);
+    }
+
+    // ---- acquisition ----
+
+    public void acquire() throws InterruptedException {
+        acquire(1);
+    }
+
+    public void acquire(int n) throws InterruptedException {
+        tryAcquire(n, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    public boolean tryAcquire(int n) {
+        checkWeight(n);
+        return (!fair || waiters.isEmpty()) && takeFromShards(n, null);
+    }
+
+    public boolean tryAcquire(int n, long timeout, TimeUnit unit) throws InterruptedException {
+        checkWeight(n);
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if ((!fair || waiters.isEmpty()) && takeFromShards(n, null)) {
+            return true;
+        }
+
+        long start = System.nanoTime();
+        long nanos = unit.toNanos(timeout);
+        long deadline = nanos == Long.MAX_VALUE ? Long.MAX_VALUE : start + nanos;
+        Waiter me = new Waiter(Thread.currentThread(), n);
+        waiters.add(me);
+        parked.increment();
+        try {
+            while (true) {
+                // Fair: only the queue head may take permits. Unfair: anyone woken may try.
+                boolean myTurn = !fair || waiters.peek() == me;
+                if (myTurn && takeFromShards(n, me)) {
+                    waitLatency.record(System.nanoTime() - start);
+                    return true;
+                }
+                long remaining = deadline == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    timeouts.increment();
+                    return false;
+                }
+                // A release that summed the permits while we held some of them did not wake us
+                if (myTurn && availablePermits() >= n) {
+                    continue;
+                }
+                if (deadline == Long.MAX_VALUE) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, remaining);
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiters.remove(me);
+            wakeNext(null);  // pass the turn on, there may be permits left
+        }
+    }
+
+    // More than the pool holds could never be granted - and in fair mode would block the queue for good
+    private void checkWeight(int n) {
+        if (n <= 0 || n > totalPermits) {
+            throw new IllegalArgumentException("Permit count must be in [1, " + totalPermits + "], got " + n);
+        }
+    }
+
+    // Home shard first; otherwise collect from all shards and give everything back if that is not enough.
+    // 'self' is the caller's queue entry, if it has one; it checks for itself before parking again.
+    private boolean takeFromShards(int n, Waiter self) {
+        int home = homeShard();
+        if (takeUpTo(home, n, true) == n) {
+            homeHits.increment();
+            return true;
+        }
+        int taken = 0;
+        for (int i = 0; i < shards && taken < n; i++) {
+            taken += takeUpTo((home + i) & (shards - 1), n - taken, false);
+        }
+        if (taken == n) {
+            collected.increment();
+            return true;
+        }
+        if (taken > 0) {
+            // Someone may have queued while we held these
+            releaseToShards(taken, home);
+            wakeNext(self);
+        }
+        return false;
+    }
+
+    // Takes 'wanted' permits from one shard, or (allOrNothing=false) as many as it has up to 'wanted'
+    private int takeUpTo(int shard, int wanted, boolean allOrNothing) {
+        int index = slot(shard);
+        while (true) {
+            int available = permits.get(index);
+            int take = Math.min(available, wanted);
+            if (take == 0 || (allOrNothing && take < wanted)) {
+                return 0;
+            }
+            if (permits.compareAndSet(index, available, available - take)) {
+                return take;
+            }
+        }
+    }
+
+    // ---- release ----
+
+    public void release() {
+        release(1);
+    }
+
+    public void release(int n) {
+        checkWeight(n);
+        releaseToShards(n, homeShard());
+        wakeNext(null);
+    }
+
+    private void releaseToShards(int n, int shard) {
+        permits.addAndGet(slot(shard), n);
+    }
+
+    // Fair: the queue head, once its weight fits what is free. Unfair: the first waiter whose weight fits,
+    // so a large acquire(n) at the head does not hold up small ones. Never 'skip', which is awake already.
+    private void wakeNext(Waiter skip) {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        if (fair) {
+            Waiter head = waiters.peek();
+            if (head != null && head != skip && head.permits <= availablePermits()) {
+                LockSupport.unpark(head.thread);
+            }
+            return;
+        }
+        int available = availablePermits();
+        for (Waiter waiter : waiters) {
+            if (waiter != skip && waiter.permits <= available) {
+                LockSupport.unpark(waiter.thread);
+                return;
+            }
+        }
+    }
+
+    // ---- inspection ----
+
+    public int availablePermits() {
+        int sum = 0;
+        for (int i = 0; i < shards; i++) {
+            sum += permits.get(slot(i));
+        }
+        return sum;
+    }
+
+    public int totalPermits() {
+        return totalPermits;
+    }
+
+    public int queueLength() {
+        return waiters.size();
+    }
+
+    public LogHistogram.Snapshot waitLatency() {
+        return waitLatency.snapshot();
+    }
+
+    public String stats() {
+        return "shards=" + shards + (fair ? " (fair)" : "") +
+                ", available=" + availablePermits() + "/" + totalPermits +
+                ", homeHits=" + homeHits.sum() +
+                ", collected=" + collected.sum() +
+                ", parked=" + parked.sum() +
+                ", timeouts=" + timeouts.sum() +
+                "\n  wait latency: " + waitLatency.snapshot().toMicrosString();
+    }
+
+    private record Waiter(Thread thread, int permits) {
+    }
+}
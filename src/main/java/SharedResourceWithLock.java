@@ -1,3 +1,7 @@
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -6,17 +10,29 @@ class SharedResourceWithLock {
     private final Condition dataAvailable = lock.newCondition();
     private final Condition spaceAvailable = lock.newCondition();
 
-    private String data;
-    private boolean hasData = false;
+    private final int capacity;
+    private final ArrayDeque<String> buffer;
+
+    public SharedResourceWithLock() {
+        this(1);
+    }
+
+    // capacity > 1 lets produceAll/drainTo move many items per lock acquisition and signal
+    public SharedResourceWithLock(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.buffer = new ArrayDeque<>(capacity);
+    }
 
     public String consume() {
         lock.lock();
         try {
-            while (!hasData) {
+            while (buffer.isEmpty()) {
                 dataAvailable.await(); // Wait for data
             }
-            String result = data;
-            hasData = false;
+            String result = buffer.poll();
             spaceAvailable.signal(); // Signal producer
             return result;
         } catch (InterruptedException e) {
@@ -30,11 +46,10 @@ class SharedResourceWithLock {
     public void produce(String newData) {
         lock.lock();
         try {
-            while (hasData) {
+            while (buffer.size() == capacity) {
                 spaceAvailable.await(); // Wait for space
             }
-            this.data = newData;
-            hasData = true;
+            buffer.add(newData);
             dataAvailable.signal(); // Signal consumer
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -42,4 +57,131 @@ class SharedResourceWithLock {
             lock.unlock(); // Must unlock in finally
         }
     }
+
+    // Batch variants - these report interrupts instead of swallowing them, and signal once per batch
+
+    // Blocks until every item is in; fills all free space per lock acquisition. Returns how many items
+    // went in: all of them, or on interrupt the ones before the wait - the rest of the collection
+    // was not inserted, and the interrupt flag is set again.
+    public int produceAll(Collection<String> items) {
+        Iterator<String> it = items.iterator();
+        int inserted = 0;
+        try {
+            lock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+        try {
+            while (it.hasNext()) {
+                while (buffer.size() == capacity) {
+                    spaceAvailable.await();
+                }
+                int added = 0;
+                while (it.hasNext() && buffer.size() < capacity) {
+                    buffer.add(it.next());
+                    added++;
+                }
+                inserted += added;
+                // One consumer per item at most - a batch consumer takes them all on one wakeup
+                if (added == 1) {
+                    dataAvailable.signal();
+                } else {
+                    dataAvailable.signalAll();
+                }
+            }
+            return inserted;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return inserted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Takes what is there, up to maxElements, without waiting
+    public int drainTo(Collection<? super String> target, int maxElements) {
+        lock.lock();
+        try {
+            return drainLocked(target, maxElements);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Waits up to the timeout for the first item, then takes up to maxElements - one wakeup per batch
+    public int drainTo(Collection<? super String> target, int maxElements, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            return awaitData(unit.toNanos(timeout)) ? drainLocked(target, maxElements) : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Like consume(), but gives up after the timeout and returns null
+    public String poll(long timeout, TimeUnit unit) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (!awaitData(unit.toNanos(timeout))) {
+                return null;
+            }
+            String result = buffer.poll();
+            spaceAvailable.signal();
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Non-blocking produce: false when the buffer is full
+    public boolean offer(String newData) {
+        lock.lock();
+        try {
+            if (buffer.size() == capacity) {
+                return false;
+            }
+            buffer.add(newData);
+            dataAvailable.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return buffer.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private boolean awaitData(long nanos) throws InterruptedException {
+        while (buffer.isEmpty()) {
+            if (nanos <= 0) {
+                return false;
+            }
+            nanos = dataAvailable.awaitNanos(nanos);
+        }
+        return true;
+    }
+
+    private int drainLocked(Collection<? super String> target, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements && !buffer.isEmpty()) {
+            target.add(buffer.poll());
+            drained++;
+        }
+        if (drained > 0) {
+            spaceAvailable.signalAll();
+        }
+        return drained;
+    }
 }
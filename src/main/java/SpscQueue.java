@@ -0,0 +1,131 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Bounded queue for exactly one producer thread and one consumer thread - the WaitNotifyExample shape.
+// With a single writer per index there is nothing to lock or CAS: the producer owns 'tail',
+// the consumer owns 'head', and each publishes its index with an ordered (lazySet / release) write.
+// Each side also caches the other side's index and only re-reads it when the cached value says
+// full/empty, so the two cache lines are touched as little as possible.
+// Using it from more than one producer or more than one consumer thread corrupts it.
+class SpscQueue<E> {
+
+    private static final VarHandle INDEX = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // Producer and consumer indexes on their own 64-byte lines, each next to the cached copy
+    // of the other side's index that the same thread reads
+    private static final int TAIL = 8;
+    private static final int CACHED_HEAD = 9;
+    private static final int HEAD = 24;
+    private static final int CACHED_TAIL = 25;
+
+    private static final int SPINS = 100;
+    private static final int YIELDS = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final long[] indexes = new long[40];
+    private final Object[] buffer;
+    private final int mask;
+
+    SpscQueue(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, got " + capacity);
+        }
+        this.buffer = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    // ---- producer thread only ----
+
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        long tail = indexes[TAIL];
+        if (tail - indexes[CACHED_HEAD] > mask) {
+            indexes[CACHED_HEAD] = (long) INDEX.getAcquire(indexes, HEAD);
+            if (tail - indexes[CACHED_HEAD] > mask) {
+                return false;
+            }
+        }
+        buffer[(int) tail & mask] = element;
+        INDEX.setRelease(indexes, TAIL, tail + 1);  // lazySet: publishes the element, no fence
+        return true;
+    }
+
+    public void put(E element) throws InterruptedException {
+        for (int attempt = 0; !offer(element); attempt++) {
+            idle(attempt);
+        }
+    }
+
+    // ---- consumer thread only ----
+
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long head = indexes[HEAD];
+        if (head >= indexes[CACHED_TAIL]) {
+            indexes[CACHED_TAIL] = (long) INDEX.getAcquire(indexes, TAIL);
+            if (head >= indexes[CACHED_TAIL]) {
+                return null;
+            }
+        }
+        int slot = (int) head & mask;
+        E element = (E) buffer[slot];
+        buffer[slot] = null;
+        INDEX.setRelease(indexes, HEAD, head + 1);  // lazySet: hands the slot back to the producer
+        return element;
+    }
+
+    public E take() throws InterruptedException {
+        E element;
+        for (int attempt = 0; (element = poll()) == null; attempt++) {
+            idle(attempt);
+        }
+        return element;
+    }
+
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        E element;
+        for (int attempt = 0; (element = poll()) == null; attempt++) {
+            if (deadline - System.nanoTime() <= 0) {
+                return null;
+            }
+            idle(attempt);
+        }
+        return element;
+    }
+
+    // No signalling between the two sides (that would need a fence on every call):
+    // a waiting thread spins, then yields, then polls with short parks
+    private static void idle(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (attempt < SPINS) {
+            Thread.onSpinWait();
+        } else if (attempt < SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    // ---- any thread, approximate ----
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public int size() {
+        long head = (long) INDEX.getAcquire(indexes, HEAD);
+        long tail = (long) INDEX.getAcquire(indexes, TAIL);
+        return (int) Math.max(0, Math.min(tail - head, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -1,4 +1,7 @@
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SynchronizationUtilitiesDemo {
 
@@ -19,6 +22,18 @@ public class SynchronizationUtilitiesDemo {
 
         // 3. CyclicBarrier Demo
         demonstrateCyclicBarrier();
+
+        Thread.sleep(2000);
+        System.out.println("\n" + "=".repeat(50) + "\n");
+
+        // 4. Sharded permit pool - the parking lot at connection-pool scale
+        demonstrateShardedPermitPool();
+
+        Thread.sleep(2000);
+        System.out.println("\n" + "=".repeat(50) + "\n");
+
+        // 5. Phaser tree - barrier rounds for thousands of dynamic parties
+        demonstratePhasedComputation();
     }
 
     // ============================================
@@ -170,4 +185,145 @@ public class SynchronizationUtilitiesDemo {
         executor.shutdown();
         executor.awaitTermination(10, TimeUnit.SECONDS);
     }
+
+    // ============================================
+    // 4. SHARDED PERMIT POOL - Semaphore at Scale
+    // ============================================
+    private static void demonstrateShardedPermitPool() throws InterruptedException {
+        System.out.println("--- SHARDED PERMIT POOL Demo ---");
+        System.out.println("Scenario: 32 DB connections shared by 64 threads\n");
+
+        int threads = 64;
+        int rounds = 20_000;
+        Semaphore semaphore = new Semaphore(32, true);
+        ShardedPermitPool pool = new ShardedPermitPool(32);
+
+        Interruptible semaphoreRound = () -> {
+            semaphore.acquire();
+            semaphore.release();
+        };
+        Interruptible poolRound = () -> {
+            pool.acquire();
+            pool.release();
+        };
+        hammer(threads, rounds / 10, semaphoreRound); // warm-up
+        hammer(threads, rounds / 10, poolRound);
+        long semaphoreMs = hammer(threads, rounds, semaphoreRound);
+        long poolMs = hammer(threads, rounds, poolRound);
+        System.out.printf("🔒 Fair Semaphore:    %,d acquire/release in %,d ms%n", threads * rounds, semaphoreMs);
+        // The gap grows with the core count - on one or two CPUs there is little contention to remove
+        System.out.printf("🧩 ShardedPermitPool: %,d acquire/release in %,d ms (%d CPUs)%n",
+                threads * rounds, poolMs, Runtime.getRuntime().availableProcessors());
+        System.out.println("   " + pool.stats());
+
+        // Weighted and timed acquisition on a small fair pool
+        System.out.println();
+        ShardedPermitPool connections = new ShardedPermitPool(8, 4, true);
+        connections.acquire(6);
+        System.out.println("📦 Bulk export holds 6 connections (available: " + connections.availablePermits() + ")");
+
+        boolean granted = connections.tryAcquire(4, 200, TimeUnit.MILLISECONDS);
+        System.out.println("⏱️ Report asking for 4 within 200ms: " + (granted ? "granted" : "timed out"));
+
+        Thread report = new Thread(() -> {
+            try {
+                long start = System.nanoTime();
+                connections.acquire(4); // Queues until the export gives its connections back
+                System.out.println("✅ Report got 4 connections after " +
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+                connections.release(4);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        report.start();
+        Thread.sleep(300);
+        connections.release(6);
+        report.join();
+        System.out.println("   " + connections.stats());
+    }
+
+    // ============================================
+    // 5. PHASER - Tiered Phases with a Reduction
+    // ============================================
+    private static void demonstratePhasedComputation() throws InterruptedException {
+        System.out.println("--- PHASER Demo ---");
+        System.out.println("Scenario: 2000 cells cool down in steps; 500 leave after step 2, 250 join at step 4\n");
+
+        AtomicInteger active = new AtomicInteger();
+        // Total heat is reduced after every step; stop after 8 steps or once it is nearly gone
+        PhasedComputation<Double> cooling = new PhasedComputation<>(0.0, Double::sum, (step, totalHeat) -> {
+            System.out.printf("🌡️ Step %d done: %4d cells, total heat %8.2f%n", step, active.get(), totalHeat);
+            return step + 1 < 8 && totalHeat > 1.0;
+        });
+
+        try (ExecutorService cells = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Register every initial party before any of them runs, or step 0 could finish early
+            List<PhasedComputation<Double>.Participant> initial = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                initial.add(cooling.register());
+            }
+            active.set(initial.size());
+            System.out.println("🌳 " + cooling.registeredParties() + " parties on " + cooling.leafCount() +
+                    " leaf phasers\n");
+            for (int i = 0; i < initial.size(); i++) {
+                int leaveAfter = i < 500 ? 2 : Integer.MAX_VALUE;
+                PhasedComputation<Double>.Participant cell = initial.get(i);
+                cells.submit(() -> coolDown(cell, 1.0, leaveAfter, active));
+            }
+
+            // Late joiners enter whatever step is running when they register
+            while (cooling.phase() >= 0 && cooling.phase() < 4) {
+                Thread.sleep(1);
+            }
+            if (!cooling.isTerminated()) {
+                for (int i = 0; i < 250; i++) {
+                    PhasedComputation<Double>.Participant cell = cooling.register();
+                    active.incrementAndGet();
+                    cells.submit(() -> coolDown(cell, 2.0, Integer.MAX_VALUE, active));
+                }
+            }
+        }
+        System.out.printf("%n🏁 Finished, final total heat %.2f%n", cooling.result());
+    }
+
+    private static void coolDown(PhasedComputation<Double>.Participant cell, double heat, int leaveAfter,
+                                 AtomicInteger active) {
+        while (!cell.isDone()) {
+            if (cell.phase() > leaveAfter) {
+                active.decrementAndGet();
+                cell.deregister();
+                return;
+            }
+            heat *= 0.5;
+            cell.arriveAndAwait(heat);
+        }
+    }
+
+    private interface Interruptible {
+        void run() throws InterruptedException;
+    }
+
+    // Runs 'rounds' iterations of the action on each of 'threads' threads, returns the wall time
+    private static long hammer(int threads, int rounds, Interruptible action) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int r = 0; r < rounds; r++) {
+                        action.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(60, TimeUnit.SECONDS);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+    }
 }
@@ -0,0 +1,59 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free task id allocation - ids are handed out in contiguous blocks,
+// so threads touch the shared counter once per block instead of once per task
+class TaskIdAllocator {
+
+    static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private final AtomicLong nextId;
+    private final int blockSize;
+
+    // Per-thread cache: [0] = next id to hand out, [1] = end of the block (exclusive)
+    private final ThreadLocal<long[]> localBlock = ThreadLocal.withInitial(() -> new long[2]);
+
+    public TaskIdAllocator() {
+        this(1, DEFAULT_BLOCK_SIZE);
+    }
+
+    public TaskIdAllocator(long firstId, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        this.nextId = new AtomicLong(firstId);
+        this.blockSize = blockSize;
+    }
+
+    // Reserves a whole range up front, e.g. one range per cycle - ids inside it need no coordination
+    public IdBlock allocate(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative: " + size);
+        }
+        // getAndAdd never retries, unlike a compareAndSet loop
+        return new IdBlock(nextId.getAndAdd(size), size);
+    }
+
+    // Single id from this thread's cached block - refills with one getAndAdd every blockSize ids
+    public long nextId() {
+        long[] block = localBlock.get();
+        if (block[0] == block[1]) {
+            block[0] = nextId.getAndAdd(blockSize);
+            block[1] = block[0] + blockSize;
+        }
+        return block[0]++;
+    }
+
+    record IdBlock(long start, int size) {
+
+        long idAt(int offset) {
+            if (offset < 0 || offset >= size) {
+                throw new IndexOutOfBoundsException("offset " + offset + " outside block of " + size);
+            }
+            return start + offset;
+        }
+
+        long end() {
+            return start + size;
+        }
+    }
+}
@@ -1,3 +1,12 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class ThreadDependencyDemo {
     
     // Shared variables to pass data between threads
@@ -137,6 +146,188 @@ public class ThreadDependencyDemo {
         System.out.println("Final result: " + (finalResult.isEmpty() ? "FAILED" : finalResult));
     }
     
+    // ---- Streaming mode: chunks flow through bounded queues, all three stages run at once ----
+    
+    private static final List<String> END_OF_STREAM = List.of();
+    private static final int CHUNK_SIZE = 500;
+    
+    // Stage 1: emits the raw records in chunks instead of one big String
+    class ChunkCollector extends Thread {
+        private final int records;
+        private final BlockingQueue<List<String>> out;
+        
+        ChunkCollector(int records, BlockingQueue<List<String>> out) {
+            super("ChunkCollector");
+            this.records = records;
+            this.out = out;
+        }
+        
+        @Override
+        public void run() {
+            String[] sources = {"UserData", "OrderData", "ProductData"};
+            try {
+                List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+                for (int i = 1; i <= records; i++) {
+                    chunk.add(sources[i % sources.length] + "-" + i);
+                    if (chunk.size() == CHUNK_SIZE || i == records) {
+                        Thread.sleep(50); // Simulate reading one chunk from the external source
+                        out.put(List.copyOf(chunk)); // Blocks while the processor is behind
+                        chunk.clear();
+                    }
+                }
+                out.put(END_OF_STREAM);
+                System.out.println("ChunkCollector: all " + records + " records collected");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    // Stage 2: transforms every chunk as soon as it arrives
+    class ChunkProcessor extends Thread {
+        private final BlockingQueue<List<String>> in;
+        private final BlockingQueue<List<String>> out;
+        
+        ChunkProcessor(BlockingQueue<List<String>> in, BlockingQueue<List<String>> out) {
+            super("ChunkProcessor");
+            this.in = in;
+            this.out = out;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                for (List<String> chunk = in.take(); chunk != END_OF_STREAM; chunk = in.take()) {
+                    Thread.sleep(40); // Simulate processing one chunk
+                    List<String> processed = new ArrayList<>(chunk.size());
+                    for (String record : chunk) {
+                        processed.add(record.toUpperCase());
+                    }
+                    out.put(processed);
+                }
+                out.put(END_OF_STREAM);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    // Stage 3: folds chunks into running totals, so only the totals stay in memory
+    class IncrementalReportGenerator extends Thread {
+        private final BlockingQueue<List<String>> in;
+        private final long startNanos;
+        private final Map<String, Integer> countsBySource = new TreeMap<>();
+        private volatile String report = "";
+        
+        IncrementalReportGenerator(BlockingQueue<List<String>> in, long startNanos) {
+            super("IncrementalReportGenerator");
+            this.in = in;
+            this.startNanos = startNanos;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                int chunks = 0;
+                for (List<String> chunk = in.take(); chunk != END_OF_STREAM; chunk = in.take()) {
+                    for (String record : chunk) {
+                        countsBySource.merge(record.substring(0, record.indexOf('-')), 1, Integer::sum);
+                    }
+                    if (++chunks == 1) {
+                        System.out.println("IncrementalReportGenerator: first chunk reported after " +
+                                elapsedMs(startNanos) + " ms");
+                    }
+                }
+                report = "REPORT: " + countsBySource + " from " + chunks + " chunks - Generated on " +
+                        java.time.LocalTime.now();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    public void runStreamingDemo() throws InterruptedException {
+        System.out.println("\n=== Streaming mode: chunks over bounded queues ===");
+        System.out.println("Collector, processor and report generator work on different chunks at once:\n");
+        
+        int records = 10_000;
+        // At most 4 chunks wait between two stages, however large the input is
+        BlockingQueue<List<String>> rawChunks = new ArrayBlockingQueue<>(4);
+        BlockingQueue<List<String>> processedChunks = new ArrayBlockingQueue<>(4);
+        
+        long start = System.nanoTime();
+        ChunkCollector collector = new ChunkCollector(records, rawChunks);
+        ChunkProcessor processor = new ChunkProcessor(rawChunks, processedChunks);
+        IncrementalReportGenerator generator = new IncrementalReportGenerator(processedChunks, start);
+        collector.start();
+        processor.start();
+        generator.start();
+        
+        collector.join();
+        processor.join();
+        generator.join();
+        
+        int chunks = (records + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        System.out.println("\nFinal Output: " + generator.report);
+        System.out.println("Streamed in " + elapsedMs(start) + " ms; one stage after the other would take about " +
+                chunks * (50 + 40) + " ms");
+    }
+    
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+    
+    public void runDagDemo() throws InterruptedException {
+        System.out.println("\n=== Dependencies declared as a DAG ===");
+        System.out.println("Three sources collected and processed in parallel, then one report:\n");
+        
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            DagEngine dag = new DagEngine(executor);
+            
+            // Each stage names its inputs; values flow between stages, nothing is shared
+            DagEngine.Stage<String> users = dag.stage("collectUsers", () -> collect("UserData", 1000));
+            DagEngine.Stage<String> orders = dag.stage("collectOrders", () -> collect("OrderData", 700));
+            DagEngine.Stage<String> products = dag.stage("collectProducts", () -> collect("ProductData", 500));
+            DagEngine.Stage<String> processedUsers = dag.stage("processUsers", users, raw -> process(raw, 800));
+            DagEngine.Stage<String> processedOrders = dag.stage("processOrders", orders, raw -> process(raw, 400));
+            DagEngine.Stage<String> processedProducts =
+                    dag.stage("processProducts", products, raw -> process(raw, 300));
+            DagEngine.Stage<String> report = dag.stage("generateReport",
+                    inputs -> generateReport(List.of(inputs.get(processedUsers), inputs.get(processedOrders),
+                            inputs.get(processedProducts))),
+                    processedUsers, processedOrders, processedProducts);
+            
+            DagEngine.Run run = dag.run().join();
+            System.out.println("\nFinal Output: " + run.get(report));
+            System.out.println(run.report());
+        }
+    }
+    
+    private static String collect(String source, int millis) {
+        System.out.println("Collecting " + source + " on " + Thread.currentThread().getName());
+        pause(millis);
+        return source;
+    }
+    
+    private static String process(String raw, int millis) {
+        pause(millis);
+        return raw.toUpperCase();
+    }
+    
+    private static String generateReport(List<String> parts) {
+        pause(600);
+        return "REPORT: [" + String.join(" | ", parts) + "] - Generated on " + java.time.LocalTime.now();
+    }
+    
+    private static void pause(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+    }
+    
     public static void main(String[] args) throws InterruptedException {
         ThreadDependencyDemo demo = new ThreadDependencyDemo();
         
@@ -147,5 +338,15 @@ public class ThreadDependencyDemo {
         
         // Show what happens without proper dependency management
         demo.runParallelDemo();
+        
+        Thread.sleep(2000);
+        
+        // Same job with declared dependencies: parallel where possible, no shared state
+        demo.runDagDemo();
+        
+        Thread.sleep(2000);
+        
+        // Same pipeline, streamed chunk by chunk instead of one big String per stage
+        demo.runStreamingDemo();
     }
 }
@@ -1,3 +1,7 @@
+import com.java.playground.metrics.InstrumentedExecutorService;
+
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -6,14 +10,27 @@ public class ThreadPool1000TasksDemo {
     private AtomicInteger completedTasks = new AtomicInteger(0);
     private AtomicInteger activeTasks = new AtomicInteger(0);
     
-    // Simple task that simulates work
-    class NumberedTask implements Runnable {
+    private static final Path SPILL_FILE = Path.of("executor-spill.log");
+    private static final String TASK_RECORD = "NumberedTask ";
+    
+    // Bounded, reported shutdown for every pool - unstarted tasks go to the spill file instead of vanishing
+    private final ExecutorLifecycle lifecycle =
+        new ExecutorLifecycle(Duration.ofSeconds(120), SPILL_FILE).installShutdownHook();
+    
+    // Simple task that simulates work; handed to execute(), not submit(), so shutdownNow()
+    // returns the task itself and ExecutorLifecycle can spill its number
+    class NumberedTask implements Runnable, ExecutorLifecycle.Spillable {
         private int taskId;
         
         public NumberedTask(int taskId) {
             this.taskId = taskId;
         }
         
+        @Override
+        public String spillRecord() {
+            return TASK_RECORD + taskId;
+        }
+        
         @Override
         public void run() {
             String threadName = Thread.currentThread().getName();
@@ -49,26 +66,25 @@ public class ThreadPool1000TasksDemo {
         activeTasks.set(0);
         
         // Create small thread pool with only 5 threads
-        ExecutorService executor = Executors.newFixedThreadPool(5);
+        InstrumentedExecutorService executor = new InstrumentedExecutorService(
+                "SmallPool", Executors.newFixedThreadPool(5)).registerJmx();
         
+        lifecycle.register("SmallPool", executor);
         long startTime = System.currentTimeMillis();
         
         // Submit 1000 tasks
         System.out.println("Submitting 1000 tasks to 5-thread pool...");
         for (int i = 1; i <= 1000; i++) {
-            executor.submit(new NumberedTask(i));
+            executor.execute(new NumberedTask(i));
         }
         System.out.println("All 1000 tasks submitted! (Most are queued)");
         
-        // Monitor progress
-        monitorProgress(executor);
-        
-        executor.shutdown();
-        executor.awaitTermination(60, TimeUnit.SECONDS);
+        System.out.println(lifecycle.shutdown("SmallPool"));
         
         long endTime = System.currentTimeMillis();
         
         System.out.println("All tasks completed!");
+        System.out.println(executor.snapshot());
         System.out.println("Time taken: " + (endTime - startTime) + "ms");
         System.out.println("Threads used: 5 (reused for 1000 tasks)");
         System.out.println();
@@ -81,26 +97,25 @@ public class ThreadPool1000TasksDemo {
         activeTasks.set(0);
         
         // Create larger thread pool with 50 threads
-        ExecutorService executor = Executors.newFixedThreadPool(50);
+        InstrumentedExecutorService executor = new InstrumentedExecutorService(
+                "LargePool", Executors.newFixedThreadPool(50)).registerJmx();
         
+        lifecycle.register("LargePool", executor);
         long startTime = System.currentTimeMillis();
         
         // Submit 1000 tasks
         System.out.println("Submitting 1000 tasks to 50-thread pool...");
         for (int i = 1; i <= 1000; i++) {
-            executor.submit(new NumberedTask(i));
+            executor.execute(new NumberedTask(i));
         }
         System.out.println("All 1000 tasks submitted!");
         
-        // Monitor progress
-        monitorProgress(executor);
-        
-        executor.shutdown();
-        executor.awaitTermination(60, TimeUnit.SECONDS);
+        System.out.println(lifecycle.shutdown("LargePool"));
         
         long endTime = System.currentTimeMillis();
         
         System.out.println("All tasks completed!");
+        System.out.println(executor.snapshot());
         System.out.println("Time taken: " + (endTime - startTime) + "ms");
         System.out.println("Threads used: 50 (much faster execution)");
         System.out.println();
@@ -112,14 +127,20 @@ public class ThreadPool1000TasksDemo {
         completedTasks.set(0);
         activeTasks.set(0);
         
+        // Queue full: wait up to 200ms for space instead of failing at once (bounded producer latency)
+        BackpressurePolicies.TimedBlockingOfferPolicy overloadPolicy =
+            BackpressurePolicies.timedBlockingOffer(200, TimeUnit.MILLISECONDS);
+
         // Create custom thread pool with limited queue
         ThreadPoolExecutor executor = new ThreadPoolExecutor(
             3,                              // Core threads
             3,                              // Max threads  
             60L, TimeUnit.SECONDS,          // Keep alive time
-            new ArrayBlockingQueue<>(10)    // Queue size = 10
+            new ArrayBlockingQueue<>(10),   // Queue size = 10
+            overloadPolicy                  // Rejection: timed blocking offer
         );
         
+        lifecycle.register("QueuePool", executor);
         long startTime = System.currentTimeMillis();
         
         // Submit tasks and handle queue full scenario
@@ -128,7 +149,7 @@ public class ThreadPool1000TasksDemo {
         int submitted = 0;
         for (int i = 1; i <= 50; i++) {
             try {
-                executor.submit(new NumberedTask(i));
+                executor.execute(new NumberedTask(i));
                 submitted++;
                 
                 if (i <= 15) {
@@ -137,40 +158,73 @@ public class ThreadPool1000TasksDemo {
                                      ", Active: " + executor.getActiveCount() + ")");
                 }
             } catch (RejectedExecutionException e) {
-                System.out.println("Task " + i + " REJECTED! Queue is full.");
+                System.out.println("Task " + i + " REJECTED! Queue still full after waiting.");
                 break;
             }
         }
         
         System.out.println("Successfully submitted: " + submitted + " tasks");
+        System.out.println("Overload policy: " + overloadPolicy.stats());
         
-        executor.shutdown();
-        executor.awaitTermination(30, TimeUnit.SECONDS);
+        System.out.println(lifecycle.shutdown("QueuePool"));
         
         long endTime = System.currentTimeMillis();
         System.out.println("Time taken: " + (endTime - startTime) + "ms");
         System.out.println();
     }
     
-    private void monitorProgress(ExecutorService executor) throws InterruptedException {
-        // Monitor progress every 2 seconds
-        while (!executor.isTerminated()) {
-            Thread.sleep(2000);
-            int completed = completedTasks.get();
-            int active = activeTasks.get();
-            
-            if (completed < 1000) {
-                System.out.println("Progress: " + completed + "/1000 completed, " + 
-                                 active + " currently active");
-            }
-            
-            if (completed >= 1000) break;
+    public void demonstrateWorkStealingPool() throws InterruptedException {
+        System.out.println("=== Demo 4: Work-stealing pool handling 1000 tasks ===");
+        
+        completedTasks.set(0);
+        activeTasks.set(0);
+        
+        // ForkJoinPool in async mode: one deque per worker, idle workers steal from busy ones
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        InstrumentedExecutorService executor = new InstrumentedExecutorService(
+                "WorkStealingPool", WorkStealingComparison.newAsyncPool(parallelism)).registerJmx();
+        
+        lifecycle.register("WorkStealingPool", executor);
+        long startTime = System.currentTimeMillis();
+        
+        // Submit 1000 tasks
+        System.out.println("Submitting 1000 tasks to " + parallelism + "-worker work-stealing pool...");
+        for (int i = 1; i <= 1000; i++) {
+            executor.execute(new NumberedTask(i));
+        }
+        System.out.println("All 1000 tasks submitted!");
+        
+        System.out.println(lifecycle.shutdown("WorkStealingPool"));
+        
+        long endTime = System.currentTimeMillis();
+        
+        System.out.println("All tasks completed!");
+        System.out.println(executor.snapshot());
+        System.out.println("Time taken: " + (endTime - startTime) + "ms");
+        System.out.println("See WorkStealingComparison for 10k-1M short tasks vs the fixed pools");
+        System.out.println();
+    }
+    
+    // Tasks a previous run drained to the spill file (e.g. stopped with Ctrl-C) run first
+    public void replaySpilledTasks() {
+        completedTasks.set(0);
+        activeTasks.set(0);
+        ExecutorService executor = lifecycle.register("ReplayPool", Executors.newFixedThreadPool(5));
+        int replayed = ExecutorLifecycle.replay(SPILL_FILE, record -> record.startsWith(TASK_RECORD)
+                ? new NumberedTask(Integer.parseInt(record.substring(TASK_RECORD.length()))) : null, executor);
+        if (replayed > 0) {
+            System.out.println("=== Replaying " + replayed + " task(s) spilled by the last run ===");
+            System.out.println(lifecycle.shutdown("ReplayPool"));
+        } else {
+            lifecycle.shutdown("ReplayPool");
         }
     }
     
     public static void main(String[] args) throws InterruptedException {
         ThreadPool1000TasksDemo demo = new ThreadPool1000TasksDemo();
         
+        demo.replaySpilledTasks();
+        
         demo.demonstrateSmallThreadPool();
         Thread.sleep(2000);
         
@@ -178,6 +232,9 @@ public class ThreadPool1000TasksDemo {
         Thread.sleep(2000);
         
         demo.demonstrateWithTaskQueue();
+        Thread.sleep(2000);
+        
+        demo.demonstrateWorkStealingPool();
         
         System.out.println("=== How ThreadPool Handles 1000 Tasks ===");
         System.out.println("\n1. Task Submission:");
@@ -1,8 +1,13 @@
+import com.java.playground.metrics.InstrumentedExecutorService;
+import com.java.playground.metrics.LogHistogram;
+
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class ThreadPoolExecutorDemo {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         // Custom ThreadPoolExecutor with all parameters
         ThreadPoolExecutor executor = new ThreadPoolExecutor(
                 2,                              // corePoolSize: 2 core threads
@@ -16,11 +21,16 @@ public class ThreadPoolExecutorDemo {
 
 
         executor.prestartAllCoreThreads();
+
+        // Instrumented view of the pool - per-task queue wait/run time, rejections, utilization (also on JMX)
+        InstrumentedExecutorService pool = new InstrumentedExecutorService("ThreadPoolExecutorDemo", executor)
+                .registerJmx();
+
         // Submit 10 tasks to demonstrate behavior
         for (int i = 1; i <= 10; i++) {
             final int taskId = i;
             try {
-                executor.submit(() -> {
+                pool.submit(() -> {
                     System.out.println("Task " + taskId + " running on: " +
                             Thread.currentThread().getName());
                     sleep(2000);
@@ -31,37 +41,182 @@ public class ThreadPoolExecutorDemo {
             }
         }
 
-        // Monitor pool status
-        monitorPool(executor);
+        // Drain within 30s; anything still queued then is spilled instead of silently lost
+        ExecutorLifecycle lifecycle = new ExecutorLifecycle(Duration.ofSeconds(30), Path.of("executor-spill.log"));
+        lifecycle.register("ThreadPoolExecutorDemo", pool);
+        System.out.println(lifecycle.shutdownAll());
 
-        executor.shutdown();
+        // Pool status
+        System.out.println("\n--- Pool Status ---");
+        System.out.println(pool.snapshot());
+
+        // Same kind of pool, but sized from live queue metrics
+        demonstrateAdaptivePool();
+
+        // Overload behaviour per pool
+        demonstrateBackpressure();
+
+        // Interactive work jumping ahead of bulk work
+        demonstratePriorityLanes();
+
+        // Separate thread lanes for latency-sensitive and batch work
+        demonstrateThreadLanes();
+    }
+
+    private static void demonstrateThreadLanes() throws InterruptedException {
+        System.out.println("\n=== Thread lanes (latency lane on CPU 0, batch lane on the rest) ===");
+
+        int cpus = Runtime.getRuntime().availableProcessors();
+        String batchCpus = cpus > 1 ? "1-" + (cpus - 1) : "0";
+        LaneThreadFactory latencyLane = new LaneThreadFactory("Api", "latency", "0", false, Thread.MAX_PRIORITY);
+        LaneThreadFactory batchLane = new LaneThreadFactory("Jobs", "batch", batchCpus, false, Thread.MIN_PRIORITY);
+
+        ExecutorService latencyPool = Executors.newFixedThreadPool(1, latencyLane);
+        ExecutorService batchPool = Executors.newFixedThreadPool(Math.max(1, cpus - 1), batchLane);
+
+        for (int i = 0; i < 20; i++) {
+            latencyPool.execute(() -> burnCpu(5));
+            batchPool.execute(() -> burnCpu(20));
+        }
+        // execute() lets the exception reach the lane's uncaught-exception handler
+        batchPool.execute(() -> {
+            throw new IllegalStateException("bad batch record");
+        });
+
+        latencyPool.shutdown();
+        batchPool.shutdown();
+        latencyPool.awaitTermination(30, TimeUnit.SECONDS);
+        batchPool.awaitTermination(30, TimeUnit.SECONDS);
+
+        System.out.println(latencyLane.stats());
+        System.out.println(batchLane.stats());
+    }
+
+    private static void burnCpu(int millis) {
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void demonstratePriorityLanes() throws InterruptedException {
+        System.out.println("\n=== Priority lanes vs FIFO (2 threads, 200 batch tasks + 20 interactive tasks) ===");
+
+        ThreadPoolExecutor fifo = new ThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(500), new CustomThreadFactory());
+        runMixedLoad("FIFO ArrayBlockingQueue", fifo);
+
+        PriorityLaneQueue lanes = new PriorityLaneQueue(500);
+        PriorityThreadPoolExecutor prioritized = new PriorityThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS,
+                lanes, new CustomThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        runMixedLoad("PriorityLaneQueue", prioritized);
+        System.out.println("  lanes: " + lanes.stats());
     }
 
-    // Custom ThreadFactory
-    static class CustomThreadFactory implements ThreadFactory {
-        private final AtomicInteger threadNumber = new AtomicInteger(1);
+    private static void runMixedLoad(String name, ExecutorService pool) throws InterruptedException {
+        LogHistogram interactive = new LogHistogram();
+        LogHistogram batch = new LogHistogram();
 
-        @Override
-        public Thread newThread(Runnable r) {
-            Thread thread = new Thread(r, "CustomPool-Thread-" + threadNumber.getAndIncrement());
-            thread.setDaemon(false);  // Non-daemon threads
-            thread.setPriority(Thread.NORM_PRIORITY);
-            return thread;
+        // Bulk work fills the queue first...
+        for (int i = 0; i < 200; i++) {
+            long submitted = System.nanoTime();
+            pool.submit(Prioritized.of(Prioritized.LOW, () -> {
+                sleep(10);
+                batch.record(System.nanoTime() - submitted);
+            }));
+        }
+        // ...then latency-critical requests trickle in
+        for (int i = 0; i < 20; i++) {
+            long submitted = System.nanoTime();
+            pool.submit(Prioritized.of(Prioritized.HIGH, () -> {
+                sleep(2);
+                interactive.record(System.nanoTime() - submitted);
+            }));
+            sleep(20);
         }
+        pool.shutdown();
+        pool.awaitTermination(60, TimeUnit.SECONDS);
+
+        System.out.printf("%-24s interactive p99 %6.0f ms | batch p99 %6.0f ms%n",
+                name, interactive.percentile(0.99) / 1e6, batch.percentile(0.99) / 1e6);
+    }
+
+    private static void demonstrateBackpressure() throws InterruptedException {
+        System.out.println("\n=== Backpressure policies (2 threads, queue of 5, 30 tasks of 100ms) ===");
+
+        BackpressurePolicies.TimedBlockingOfferPolicy timedOffer =
+                BackpressurePolicies.timedBlockingOffer(150, TimeUnit.MILLISECONDS);
+        runOverloaded("Timed offer", overloadPool(timedOffer), timedOffer::stats);
+
+        BackpressurePolicies.DropOldestPolicy dropOldest = BackpressurePolicies.dropOldest(task -> { });
+        runOverloaded("Drop oldest", overloadPool(dropOldest), dropOldest::stats);
+
+        BackpressurePolicies.ShedByPriorityPolicy shed = BackpressurePolicies.shedByPriority(task -> { });
+        // submit() keeps the priority only on PriorityThreadPoolExecutor, whose futures carry it
+        runOverloaded("Shed by priority", new PriorityThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(5), new CustomThreadFactory(), shed), shed::stats);
+
+        // Rate limiter in front of submit: 20 tasks/s, bursts of 5, wait at most 100ms for a token
+        BackpressurePolicies.TokenBucketExecutor limited = BackpressurePolicies.rateLimited(
+                overloadPool(new ThreadPoolExecutor.CallerRunsPolicy()), 20, 5, 100, TimeUnit.MILLISECONDS);
+        runOverloaded("Token bucket", limited, limited::stats);
+    }
+
+    private static ThreadPoolExecutor overloadPool(RejectedExecutionHandler handler) {
+        return new ThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(5), new CustomThreadFactory(), handler);
     }
 
-    private static void monitorPool(ThreadPoolExecutor executor) {
-        new Thread(() -> {
-            for (int i = 0; i < 5; i++) {
-                System.out.println("\n--- Pool Status ---");
-                System.out.println("Core Pool Size: " + executor.getCorePoolSize());
-                System.out.println("Current Pool Size: " + executor.getPoolSize());
-                System.out.println("Active Threads: " + executor.getActiveCount());
-                System.out.println("Queue Size: " + executor.getQueue().size());
-                System.out.println("Completed Tasks: " + executor.getCompletedTaskCount());
-                sleep(1000);
+    private static void runOverloaded(String name, ExecutorService pool, Supplier<String> stats)
+            throws InterruptedException {
+        long worstSubmitNanos = 0;
+        int rejected = 0;
+        for (int i = 1; i <= 30; i++) {
+            // Every third task is latency-critical
+            int priority = i % 3 == 0 ? Prioritized.HIGH : Prioritized.LOW;
+            long start = System.nanoTime();
+            try {
+                pool.submit(Prioritized.of(priority, () -> sleep(100)));
+            } catch (RejectedExecutionException e) {
+                rejected++;
             }
-        }).start();
+            worstSubmitNanos = Math.max(worstSubmitNanos, System.nanoTime() - start);
+        }
+        pool.shutdown();
+        pool.awaitTermination(30, TimeUnit.SECONDS);
+
+        System.out.printf("%-17s worst submit %4d ms, rejected %2d | %s%n",
+                name, worstSubmitNanos / 1_000_000, rejected, stats.get());
+    }
+
+    private static void demonstrateAdaptivePool() {
+        System.out.println("\n=== Adaptive ThreadPoolExecutor (2..16 threads, target queue wait 200ms) ===");
+
+        AdaptiveThreadPoolExecutor executor = new AdaptiveThreadPoolExecutor(
+                2, 16,                          // bounds for core/max pool size
+                200, TimeUnit.MILLISECONDS,     // target queue wait
+                new ArrayBlockingQueue<>(100),
+                new CustomThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+
+        // Burst: 60 tasks of 200ms at once, then a quiet period
+        for (int i = 1; i <= 60; i++) {
+            executor.submit(() -> sleep(200));
+        }
+        for (int i = 0; i < 8; i++) {
+            sleep(500);
+            System.out.println("Adaptive pool: " + executor.stats());
+        }
+
+        executor.shutdown();
+    }
+
+    // Custom ThreadFactory - one lane named "Thread", so workers are CustomPool-Thread-1, -2, ...
+    static class CustomThreadFactory extends LaneThreadFactory {
+        CustomThreadFactory() {
+            super("CustomPool", "Thread", null, false, Thread.NORM_PRIORITY);  // Non-daemon threads
+        }
     }
 
     private static void sleep(int millis) {
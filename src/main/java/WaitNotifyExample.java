@@ -1,12 +1,48 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 class SharedResource {
-    private String data;
-    private boolean hasData = false;
+    private final boolean verbose;
+    private final int capacity;
+    private final ArrayDeque<String> buffer;
+
+    public SharedResource() {
+        this(true);
+    }
+
+    // verbose=false drops the per-call console output, e.g. for benchmarks
+    public SharedResource(boolean verbose) {
+        this(1, verbose);
+    }
+
+    // capacity > 1 lets produceAll/drainTo move many items per lock acquisition and wakeup
+    public SharedResource(int capacity, boolean verbose) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1, got " + capacity);
+        }
+        this.verbose = verbose;
+        this.capacity = capacity;
+        this.buffer = new ArrayDeque<>(capacity);
+    }
 
     // Consumer method - waits for data
     public synchronized String consume() {
-        while (!hasData) {
+        while (buffer.isEmpty()) {
             try {
-                System.out.println("Consumer waiting for data...");
+                if (verbose) {
+                    System.out.println("Consumer waiting for data...");
+                }
                 wait(); // Releases lock and waits
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -14,18 +50,21 @@ class SharedResource {
             }
         }
 
-        String result = data;
-        hasData = false;
-        System.out.println("Consumer consumed: " + result);
-        notify(); // Wake up producer
+        String result = buffer.poll();
+        if (verbose) {
+            System.out.println("Consumer consumed: " + result);
+        }
+        notifyAll(); // Wake up producers (consumers wait on the same monitor)
         return result;
     }
 
     // Producer method - produces data
     public synchronized void produce(String newData) {
-        while (hasData) {
+        while (buffer.size() == capacity) {
             try {
-                System.out.println("Producer waiting to produce...");
+                if (verbose) {
+                    System.out.println("Producer waiting to produce...");
+                }
                 wait(); // Wait until data is consumed
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -33,10 +72,87 @@ class SharedResource {
             }
         }
 
-        this.data = newData;
-        hasData = true;
-        System.out.println("Producer produced: " + newData);
-        notify(); // Wake up consumer
+        buffer.add(newData);
+        if (verbose) {
+            System.out.println("Producer produced: " + newData);
+        }
+        notifyAll(); // Wake up consumers (producers wait on the same monitor)
+    }
+
+    // Batch variants - these report interrupts instead of swallowing them, and wake waiters
+    // once per batch (notifyAll, since producers and consumers share the one monitor)
+
+    // Blocks until every item is in; fills all free space per wakeup. Returns how many items went in:
+    // all of them, or on interrupt the ones before the wait - the rest of the collection was not
+    // inserted, and the interrupt flag is set again.
+    public synchronized int produceAll(Collection<String> items) {
+        Iterator<String> it = items.iterator();
+        int inserted = 0;
+        while (it.hasNext()) {
+            while (buffer.size() == capacity) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return inserted;
+                }
+            }
+            int added = 0;
+            while (it.hasNext() && buffer.size() < capacity) {
+                buffer.add(it.next());
+                added++;
+            }
+            inserted += added;
+            if (verbose) {
+                System.out.println("Producer produced " + added + " items");
+            }
+            notifyAll();
+        }
+        return inserted;
+    }
+
+    // Takes what is there, up to maxElements, without waiting
+    public synchronized int drainTo(Collection<? super String> target, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements && !buffer.isEmpty()) {
+            target.add(buffer.poll());
+            drained++;
+        }
+        if (drained > 0) {
+            if (verbose) {
+                System.out.println("Consumer drained " + drained + " items");
+            }
+            notifyAll();
+        }
+        return drained;
+    }
+
+    // Waits up to the timeout for the first item, then takes up to maxElements - one wakeup per batch
+    public synchronized int drainTo(Collection<? super String> target, int maxElements, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return awaitData(unit.toNanos(timeout)) ? drainTo(target, maxElements) : 0;
+    }
+
+    // Like consume(), but gives up after the timeout and returns null
+    public synchronized String poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!awaitData(unit.toNanos(timeout))) {
+            return null;
+        }
+        String result = buffer.poll();
+        notifyAll();
+        return result;
+    }
+
+    private boolean awaitData(long nanos) throws InterruptedException {
+        long deadline = System.nanoTime() + nanos;
+        while (buffer.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
     }
 }
 
@@ -71,6 +187,222 @@ public class WaitNotifyExample {
         }
 
         System.out.println("All done!");
+
+        // The same hand-off at volume: one slot vs a ring buffer
+        compareHandOffThroughput();
+
+        // The same hand-off without blocked threads: demand flows back to the producer
+        demonstrateReactiveHandOff();
+    }
+
+    private static void demonstrateReactiveHandOff() {
+        System.out.println("\n=== Reactive hand-off (buffer of 4, consumer requests one item at a time) ===");
+        int items = 12;
+        AtomicInteger produced = new AtomicInteger();
+
+        // Producer that only runs when asked - it is never parked waiting for space.
+        // Demand is counted; whoever moves it off zero emits, so items go out one caller at a time
+        Flow.Publisher<String> producer = subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+            private final AtomicLong requested = new AtomicLong();
+            private volatile boolean done;
+            private int next = 1; // only touched by the emitting caller
+
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    done = true;
+                    subscriber.onError(new IllegalArgumentException("request(" + n + "): demand must be positive"));
+                    return;
+                }
+                if (requested.getAndAdd(n) != 0) {
+                    return; // someone is emitting and will see the new demand
+                }
+                long pending = n;
+                while (true) {
+                    long emitted = 0;
+                    while (emitted < pending && next <= items && !done) {
+                        produced.incrementAndGet();
+                        subscriber.onNext("Data-" + next++);
+                        emitted++;
+                    }
+                    if (done) {
+                        return;
+                    }
+                    if (next > items) {
+                        done = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    pending = requested.addAndGet(-emitted);
+                    if (pending == 0) {
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            public void cancel() {
+                done = true;
+            }
+        });
+
+        BufferedProcessor buffer = new BufferedProcessor(4);
+        CountDownLatch done = new CountDownLatch(1);
+        buffer.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(String item) {
+                sleep(100); // Slow consumer
+                System.out.println("Consumer consumed: " + item + " (producer has produced " + produced.get() + ")");
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                System.out.println("Consumer failed: " + throwable);
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                System.out.println("Consumer completed");
+                done.countDown();
+            }
+        });
+        producer.subscribe(buffer);
+
+        try {
+            done.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void compareHandOffThroughput() {
+        int messages = Integer.getInteger("handoff.messages", 1_000_000);
+        System.out.println("\n=== Hand-off throughput, 2 producers / 2 consumers ===");
+
+        // One message per context switch - measured on a tenth of the messages to keep the demo short
+        SharedResourceWithLock slot = new SharedResourceWithLock();
+        measure("single slot (lock/condition)", messages / 10, 2, slot::produce, slot::consume);
+
+        for (RingBuffer.WaitStrategy strategy : RingBuffer.WaitStrategy.values()) {
+            if (strategy == RingBuffer.WaitStrategy.SPIN && Runtime.getRuntime().availableProcessors() < 4) {
+                System.out.println("ring buffer SPIN: skipped, needs a core per thread");
+                continue;
+            }
+            RingBuffer<String> ring = new RingBuffer<>(1024, strategy);
+            measure("ring buffer " + strategy, messages, 2,
+                    message -> call(() -> {
+                        ring.put(message);
+                        return null;
+                    }),
+                    () -> call(ring::take));
+        }
+
+        // The demo's actual shape - one producer, one consumer - needs neither a lock nor a CAS
+        System.out.println("\n=== Hand-off throughput, 1 producer / 1 consumer ===");
+        SharedResourceWithLock single = new SharedResourceWithLock();
+        measure("single slot (lock/condition)", messages / 10, 1, single::produce, single::consume);
+        measureBatches("lock/condition, batch 512", messages, 512, new SharedResourceWithLock(1024));
+        SpscQueue<String> spsc = new SpscQueue<>(1024);
+        measure("SPSC queue", messages, 1,
+                message -> call(() -> {
+                    spsc.put(message);
+                    return null;
+                }),
+                () -> call(spsc::take));
+    }
+
+    private static void measure(String label, int messages, int pairs,
+                                Consumer<String> produce, Supplier<String> consume) {
+        int perThread = messages / pairs;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < pairs; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    produce.accept("Data-" + i);
+                }
+            }, "Producer-" + t));
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    consume.get();
+                }
+            }, "Consumer-" + t));
+        }
+
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.out.printf("%-30s %,9d messages in %,6d ms = %,12d msg/s%n",
+                label, perThread * pairs, elapsedMs, perThread * (long) pairs * 1000 / elapsedMs);
+    }
+
+    // produceAll/drainTo hand over a whole batch per lock acquisition - the log shipper pattern
+    private static void measureBatches(String label, int messages, int batchSize, SharedResourceWithLock resource) {
+        Thread producer = new Thread(() -> {
+            List<String> batch = new ArrayList<>(batchSize);
+            for (int i = 0; i < messages; i++) {
+                batch.add("Data-" + i);
+                if (batch.size() == batchSize || i == messages - 1) {
+                    if (resource.produceAll(batch) < batch.size()) {
+                        return; // interrupted
+                    }
+                    batch.clear();
+                }
+            }
+        }, "Producer");
+
+        int[] wakeups = new int[1];
+        Thread consumer = new Thread(() -> {
+            List<String> batch = new ArrayList<>(batchSize);
+            try {
+                for (int received = 0; received < messages; ) {
+                    batch.clear();
+                    received += resource.drainTo(batch, batchSize, 1, TimeUnit.SECONDS);
+                    wakeups[0]++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "Consumer");
+
+        long start = System.nanoTime();
+        producer.start();
+        consumer.start();
+        try {
+            producer.join();
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.out.printf("%-30s %,9d messages in %,6d ms = %,12d msg/s (%,d consumer wakeups)%n",
+                label, messages, elapsedMs, messages * 1000L / elapsedMs, wakeups[0]);
+    }
+
+    private static <T> T call(Callable<T> blockingCall) {
+        try {
+            return blockingCall.call();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     private static void sleep(int millis) {
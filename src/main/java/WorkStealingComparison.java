@@ -0,0 +1,120 @@
+import java.util.concurrent.*;
+import java.util.function.IntConsumer;
+
+// When does the single shared queue of newFixedThreadPool become the bottleneck?
+// Runs 10k - 1M very short tasks through:
+//   - the small/large fixed pools used by ThreadPool1000TasksDemo (one shared LinkedBlockingQueue)
+//   - a ForkJoinPool in async (FIFO) mode, tasks submitted from outside
+//   - the same ForkJoinPool with tasks forked from inside the pool (per-worker deques + stealing)
+public class WorkStealingComparison {
+
+    private static volatile long sink;  // keeps the JIT from removing the work
+
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] taskCounts = {10_000, 100_000, 1_000_000};
+
+        System.out.println("=== Shared queue vs work stealing (" + cores + " cores) ===\n");
+        System.out.printf("%-28s %10s %10s %14s%n", "Executor", "Tasks", "Time(ms)", "Tasks/s");
+
+        // Warm up the JIT once so the first row is not penalised
+        runFixed(cores, 100_000);
+        runForkJoinExternal(cores, 100_000);
+        runForkJoinForked(cores, 100_000);
+
+        for (int tasks : taskCounts) {
+            report("Fixed pool (5 threads)", tasks, runFixed(5, tasks));
+            report("Fixed pool (50 threads)", tasks, runFixed(50, tasks));
+            report("ForkJoin async, external", tasks, runForkJoinExternal(cores, tasks));
+            report("ForkJoin async, forked", tasks, runForkJoinForked(cores, tasks));
+            System.out.println();
+        }
+
+        System.out.println("Short tasks + many threads = every worker fights over one queue lock.");
+        System.out.println("Work stealing gives each worker its own deque; threads only meet when stealing.");
+    }
+
+    private static long runFixed(int threads, int tasks) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            final int taskId = i;
+            executor.execute(() -> shortTask(taskId));
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.MINUTES);
+        return System.nanoTime() - start;
+    }
+
+    private static long runForkJoinExternal(int parallelism, int tasks) throws InterruptedException {
+        ForkJoinPool pool = newAsyncPool(parallelism);
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            final int taskId = i;
+            pool.execute(() -> shortTask(taskId));
+        }
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.MINUTES);
+        return System.nanoTime() - start;
+    }
+
+    private static long runForkJoinForked(int parallelism, int tasks) throws InterruptedException {
+        ForkJoinPool pool = newAsyncPool(parallelism);
+        long start = System.nanoTime();
+        pool.invoke(new FanOut(0, tasks, WorkStealingComparison::shortTask));
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.MINUTES);
+        return System.nanoTime() - start;
+    }
+
+    // asyncMode = true: local deques are FIFO, suited to event-style tasks that are never joined
+    static ForkJoinPool newAsyncPool(int parallelism) {
+        return new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    // Splits the task range in halves down to one task per leaf, so every task the other rows submit
+    // is a forked task here too, and new work lands on the forking worker's own deque.
+    // An empty range does nothing.
+    static final class FanOut extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        @SuppressWarnings("serial") // fork/join tasks are never serialized
+        private final IntConsumer task;
+
+        FanOut(int from, int to, IntConsumer task) {
+            this.from = from;
+            this.to = to;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    task.accept(from);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new FanOut(from, mid, task), new FanOut(mid, to, task));
+        }
+    }
+
+    // About a microsecond of CPU work
+    private static void shortTask(int taskId) {
+        long x = taskId;
+        for (int i = 0; i < 200; i++) {
+            x = x * 31 + i;
+        }
+        if (x == 42) {
+            sink = x;
+        }
+    }
+
+    private static void report(String name, int tasks, long nanos) {
+        System.out.printf("%-28s %10d %10d %14.0f%n",
+                name, tasks, nanos / 1_000_000, tasks * 1_000_000_000.0 / nanos);
+    }
+}
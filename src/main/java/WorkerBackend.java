@@ -0,0 +1,148 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Which kind of threads run the batch work - picked from configuration, e.g. -Dbatch.backend=VIRTUAL_BOUNDED
+enum WorkerBackend {
+
+    // Classic pool: concurrency is capped by the number of platform threads
+    FIXED_PLATFORM {
+        @Override
+        ExecutorService create(int concurrency) {
+            return Executors.newFixedThreadPool(concurrency);
+        }
+    },
+
+    // One virtual thread per task, no cap - good for sleep/IO-bound work
+    VIRTUAL_PER_TASK {
+        @Override
+        ExecutorService create(int concurrency) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+    },
+
+    // Virtual threads, but at most 'concurrency' tasks inside the work at once (protects downstream systems)
+    VIRTUAL_BOUNDED {
+        @Override
+        ExecutorService create(int concurrency) {
+            return new SemaphoreGatedExecutor(Executors.newVirtualThreadPerTaskExecutor(), concurrency);
+        }
+    };
+
+    abstract ExecutorService create(int concurrency);
+
+    static WorkerBackend fromConfig() {
+        return valueOf(System.getProperty("batch.backend", FIXED_PLATFORM.name()));
+    }
+}
+
+// Limits how many tasks run at once without blocking the submitter -
+// each task waits for a permit on its own (cheap, virtual) thread.
+// shutdownNow() interrupts the tasks waiting at the gate and hands them back unrun.
+class SemaphoreGatedExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    // Submitted tasks that have not got a permit yet
+    private final Set<Gated> waiting = ConcurrentHashMap.newKeySet();
+
+    SemaphoreGatedExecutor(ExecutorService delegate, int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+        }
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Gated gated = new Gated(command);
+        waiting.add(gated);
+        try {
+            delegate.execute(gated);
+        } catch (RejectedExecutionException e) {
+            // A concurrent shutdownNow() may have handed the task back already
+            if (gated.claimed.compareAndSet(false, true)) {
+                waiting.remove(gated);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    // Returns the caller's tasks that never got past the gate. The delegate is stopped first, so no
+    // task can be added behind the scan; each task is claimed once, here or by the thread running it.
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> notStarted = new ArrayList<>();
+        for (Runnable queued : delegate.shutdownNow()) {
+            if (!(queued instanceof Gated gated)) {
+                notStarted.add(queued);
+            } else if (gated.claimed.compareAndSet(false, true)) {
+                waiting.remove(gated);
+                notStarted.add(gated.command);
+            }
+        }
+        // Tasks interrupted at the gate, or not yet at it, leave themselves here unclaimed
+        for (Gated gated : waiting) {
+            if (gated.claimed.compareAndSet(false, true)) {
+                waiting.remove(gated);
+                notStarted.add(gated.command);
+            }
+        }
+        return notStarted;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    // A task plus its turn at the gate; whoever claims it first - the worker or shutdownNow() - owns it
+    private final class Gated implements Runnable {
+        final Runnable command;
+        final AtomicBoolean claimed = new AtomicBoolean();
+
+        Gated(Runnable command) {
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            if (claimed.get()) {
+                return;  // handed back by shutdownNow()
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                // Shut down while waiting at the gate - shutdownNow() hands the task back
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                if (claimed.compareAndSet(false, true)) {
+                    waiting.remove(this);
+                    command.run();
+                }
+            } finally {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.java.playground.metrics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Application executor pools. They are not exposed as {@code Executor} beans so Spring Boot's own
+ * task executor stays in place - look them up through {@link ExecutorPoolRegistry} instead.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ExecutorMetricsConfiguration {
+
+	@Bean
+	public ExecutorPoolRegistry executorPoolRegistry() {
+		ExecutorPoolRegistry registry = new ExecutorPoolRegistry();
+		registry.instrument("workerPool", new ThreadPoolExecutor(
+				2, 4, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(100),
+				new ThreadPoolExecutor.CallerRunsPolicy()));
+		return registry;
+	}
+}
@@ -0,0 +1,32 @@
+package com.java.playground.metrics;
+
+/**
+ * JMX view of an {@link InstrumentedExecutorService}, visible in JConsole/VisualVM under
+ * {@code com.java.playground:type=ExecutorPool,name=<pool>}.
+ */
+public interface ExecutorMetricsMXBean {
+
+	String getName();
+
+	long getSubmitted();
+
+	long getCompleted();
+
+	long getFailed();
+
+	long getRejected();
+
+	int getRunning();
+
+	int getQueueSize();
+
+	double getUtilization();
+
+	double getQueueWaitP50Millis();
+
+	double getQueueWaitP99Millis();
+
+	double getExecutionP50Millis();
+
+	double getExecutionP99Millis();
+}
@@ -0,0 +1,87 @@
+package com.java.playground.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Named, instrumented executor pools for the application. Every pool is registered with JMX and,
+ * once Spring Boot binds this registry, published to Micrometer as {@code executor.*} meters
+ * tagged with {@code pool=<name>}.
+ */
+public class ExecutorPoolRegistry implements MeterBinder, AutoCloseable {
+
+	private final Map<String, InstrumentedExecutorService> pools = new ConcurrentHashMap<>();
+	private final List<MeterRegistry> meterRegistries = new ArrayList<>();
+
+	public InstrumentedExecutorService instrument(String name, ExecutorService pool) {
+		InstrumentedExecutorService instrumented = new InstrumentedExecutorService(name, pool).registerJmx();
+		if (pools.putIfAbsent(name, instrumented) != null) {
+			throw new IllegalArgumentException("Pool already registered: " + name);
+		}
+		synchronized (meterRegistries) {
+			meterRegistries.forEach(registry -> bind(registry, instrumented));
+		}
+		return instrumented;
+	}
+
+	public InstrumentedExecutorService pool(String name) {
+		InstrumentedExecutorService pool = pools.get(name);
+		if (pool == null) {
+			throw new IllegalArgumentException("No pool named " + name);
+		}
+		return pool;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		synchronized (meterRegistries) {
+			meterRegistries.add(registry);
+			pools.values().forEach(pool -> bind(registry, pool));
+		}
+	}
+
+	private static void bind(MeterRegistry registry, InstrumentedExecutorService pool) {
+		Tags tags = Tags.of("pool", pool.getName());
+
+		FunctionCounter.builder("executor.tasks.submitted", pool, InstrumentedExecutorService::getSubmitted)
+				.tags(tags).register(registry);
+		FunctionCounter.builder("executor.tasks.completed", pool, InstrumentedExecutorService::getCompleted)
+				.tags(tags).register(registry);
+		FunctionCounter.builder("executor.tasks.failed", pool, InstrumentedExecutorService::getFailed)
+				.tags(tags).register(registry);
+		FunctionCounter.builder("executor.tasks.rejected", pool, InstrumentedExecutorService::getRejected)
+				.tags(tags).register(registry);
+		FunctionCounter.builder("executor.busy.time", pool, p -> p.busyNanos() / 1e9)
+				.baseUnit("seconds").tags(tags).register(registry);
+
+		Gauge.builder("executor.running", pool, InstrumentedExecutorService::getRunning)
+				.tags(tags).register(registry);
+		Gauge.builder("executor.queue.size", pool, InstrumentedExecutorService::getQueueSize)
+				.tags(tags).register(registry);
+		Gauge.builder("executor.utilization", pool, InstrumentedExecutorService::getUtilization)
+				.tags(tags).register(registry);
+
+		Gauge.builder("executor.queue.wait", pool, p -> p.getQueueWaitP50Millis() / 1000)
+				.baseUnit("seconds").tags(tags.and("quantile", "0.5")).register(registry);
+		Gauge.builder("executor.queue.wait", pool, p -> p.getQueueWaitP99Millis() / 1000)
+				.baseUnit("seconds").tags(tags.and("quantile", "0.99")).register(registry);
+		Gauge.builder("executor.execution", pool, p -> p.getExecutionP50Millis() / 1000)
+				.baseUnit("seconds").tags(tags.and("quantile", "0.5")).register(registry);
+		Gauge.builder("executor.execution", pool, p -> p.getExecutionP99Millis() / 1000)
+				.baseUnit("seconds").tags(tags.and("quantile", "0.99")).register(registry);
+	}
+
+	@Override
+	public void close() {
+		pools.values().forEach(InstrumentedExecutorService::shutdown);
+	}
+}
@@ -0,0 +1,322 @@
+package com.java.playground.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Executor decorator that records, for every task, how long it waited in the queue and how long it ran,
+ * plus rejections and thread utilization. Replaces polling the pool and printing its state:
+ * the numbers are read on demand via {@link #snapshot()}, JMX or Micrometer.
+ * <p>
+ * Counters cover the pool's lifetime; the latency percentiles cover a sliding window (one minute by
+ * default), so a regression shows up in the p99 gauges within a minute rather than being averaged away.
+ */
+public class InstrumentedExecutorService extends AbstractExecutorService implements ExecutorMetricsMXBean {
+
+	private final String name;
+	private final ExecutorService delegate;
+
+	private final WindowedHistogram queueWait;
+	private final WindowedHistogram execution;
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder busyNanos = new LongAdder();
+	private final AtomicInteger running = new AtomicInteger();
+	// Only for a ForkJoinPool, whose shutdownNow() returns nothing: accepted tasks that have not
+	// started. A ThreadPoolExecutor returns its queue itself, which stays right when a discarding
+	// or shedding policy drops tasks without an exception.
+	private final Set<TimedTask> pending;
+
+	// Set only while this instance owns the JMX registration
+	private ObjectName objectName;
+
+	public InstrumentedExecutorService(String name, ExecutorService delegate) {
+		this(name, delegate, Duration.ofMinutes(1));
+	}
+
+	public InstrumentedExecutorService(String name, ExecutorService delegate, Duration latencyWindow) {
+		this.name = name;
+		this.delegate = delegate;
+		this.pending = delegate instanceof ForkJoinPool ? ConcurrentHashMap.newKeySet() : null;
+		this.queueWait = new WindowedHistogram(latencyWindow, 6);
+		this.execution = new WindowedHistogram(latencyWindow, 6);
+
+		// Count rejections even when the policy does not throw (e.g. CallerRunsPolicy)
+		if (delegate instanceof ThreadPoolExecutor pool) {
+			RejectedExecutionHandler handler = pool.getRejectedExecutionHandler();
+			pool.setRejectedExecutionHandler((task, executor) -> {
+				rejected.increment();
+				handler.rejectedExecution(task, executor);
+			});
+		}
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		submitted.increment();
+		TimedTask timed = new TimedTask(task, System.nanoTime());
+		if (pending != null) {
+			pending.add(timed);
+		}
+		try {
+			delegate.execute(timed);
+		} catch (RejectedExecutionException e) {
+			if (pending != null) {
+				pending.remove(timed);
+			}
+			if (!(delegate instanceof ThreadPoolExecutor)) {
+				rejected.increment();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Registers this pool with the platform MBean server. If a live pool already holds the name, that
+	 * registration is left alone and this pool stays out of JMX.
+	 */
+	public synchronized InstrumentedExecutorService registerJmx() {
+		if (objectName != null) {
+			return this;
+		}
+		try {
+			ObjectName candidate = new ObjectName("com.java.playground:type=ExecutorPool,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, candidate);
+			objectName = candidate;
+		} catch (InstanceAlreadyExistsException e) {
+			// another pool with the same name is registered
+		} catch (JMException e) {
+			throw new IllegalStateException("Cannot register JMX bean for pool " + name, e);
+		}
+		return this;
+	}
+
+	// Only removes the registration this instance made, never another pool's bean with the same name
+	private synchronized void unregisterJmx() {
+		if (objectName == null) {
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException e) {
+			// already gone
+		}
+		objectName = null;
+	}
+
+	public ExecutorService delegate() {
+		return delegate;
+	}
+
+	public LogHistogram.Snapshot queueWaitSnapshot() {
+		return queueWait.snapshot();
+	}
+
+	public LogHistogram.Snapshot executionSnapshot() {
+		return execution.snapshot();
+	}
+
+	public long busyNanos() {
+		return busyNanos.sum();
+	}
+
+	/** One-line summary for logs and demos. */
+	public String snapshot() {
+		return String.format("%s: submitted=%d completed=%d failed=%d rejected=%d utilization=%.0f%%%n" +
+						"  queue wait: %s%n  execution:  %s",
+				name, getSubmitted(), getCompleted(), getFailed(), getRejected(), getUtilization() * 100,
+				queueWait.snapshot().toMillisString(), execution.snapshot().toMillisString());
+	}
+
+	// --- ExecutorMetricsMXBean ---
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getSubmitted() {
+		return submitted.sum();
+	}
+
+	@Override
+	public long getCompleted() {
+		return completed.sum();
+	}
+
+	@Override
+	public long getFailed() {
+		return failed.sum();
+	}
+
+	@Override
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	@Override
+	public int getRunning() {
+		return running.get();
+	}
+
+	@Override
+	public int getQueueSize() {
+		if (delegate instanceof ThreadPoolExecutor pool) {
+			return pool.getQueue().size();
+		}
+		if (delegate instanceof ForkJoinPool pool) {
+			return (int) Math.min(Integer.MAX_VALUE, pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount());
+		}
+		return -1;
+	}
+
+	/** Busy threads / threads in the pool, or NaN when the pool size is unknown. */
+	@Override
+	public double getUtilization() {
+		int threads;
+		if (delegate instanceof ThreadPoolExecutor pool) {
+			threads = pool.getPoolSize();
+		} else if (delegate instanceof ForkJoinPool pool) {
+			threads = pool.getParallelism();
+		} else {
+			return Double.NaN;
+		}
+		return threads == 0 ? 0 : Math.min(1.0, (double) running.get() / threads);
+	}
+
+	@Override
+	public double getQueueWaitP50Millis() {
+		return queueWait.percentile(0.50) / 1e6;
+	}
+
+	@Override
+	public double getQueueWaitP99Millis() {
+		return queueWait.percentile(0.99) / 1e6;
+	}
+
+	@Override
+	public double getExecutionP50Millis() {
+		return execution.percentile(0.50) / 1e6;
+	}
+
+	@Override
+	public double getExecutionP99Millis() {
+		return execution.percentile(0.99) / 1e6;
+	}
+
+	// --- lifecycle, delegated ---
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+		unregisterJmx();
+	}
+
+	/**
+	 * Returns the caller's original tasks, not the timing wrappers - also for a {@link ForkJoinPool},
+	 * whose own {@code shutdownNow()} returns nothing.
+	 */
+	@Override
+	public List<Runnable> shutdownNow() {
+		unregisterJmx();
+		List<Runnable> unstarted = new ArrayList<>();
+		for (Runnable queued : delegate.shutdownNow()) {
+			if (!(queued instanceof TimedTask timed)) {
+				unstarted.add(queued);
+			} else if (timed.claim()) {
+				unstarted.add(timed.task);
+			}
+		}
+		if (pending != null) {
+			for (TimedTask timed : pending) {
+				if (timed.claim()) {
+					unstarted.add(timed.task);
+				}
+			}
+			pending.clear();
+		}
+		return unstarted;
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return delegate.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return delegate.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return delegate.awaitTermination(timeout, unit);
+	}
+
+	private final class TimedTask implements Runnable {
+
+		private final Runnable task;
+		private final long enqueuedAt;
+		// Whoever claims the task first - a worker or shutdownNow() - owns it
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		TimedTask(Runnable task, long enqueuedAt) {
+			this.task = task;
+			this.enqueuedAt = enqueuedAt;
+		}
+
+		boolean claim() {
+			return claimed.compareAndSet(false, true);
+		}
+
+		@Override
+		public void run() {
+			if (!claim()) {
+				return;
+			}
+			if (pending != null) {
+				pending.remove(this);
+			}
+			long startedAt = System.nanoTime();
+			queueWait.record(startedAt - enqueuedAt);
+			running.incrementAndGet();
+			boolean ok = false;
+			try {
+				task.run();
+				ok = true;
+			} finally {
+				long elapsed = System.nanoTime() - startedAt;
+				execution.record(elapsed);
+				busyNanos.add(elapsed);
+				running.decrementAndGet();
+				(ok ? completed : failed).increment();
+			}
+		}
+
+		@Override
+		public String toString() {
+			return task.toString();
+		}
+	}
+}
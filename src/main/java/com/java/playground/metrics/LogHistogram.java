@@ -0,0 +1,111 @@
+package com.java.playground.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram with log-linear buckets, in the spirit of HdrHistogram.
+ * Every power of two is split into 8 sub-buckets, so any recorded value is reported
+ * within 12.5% while the whole {@code long} range fits in a fixed 4 KB array.
+ * Recording is one array increment - cheap enough to do for every task.
+ */
+public final class LogHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	public void record(long value) {
+		long v = Math.max(0, value);
+		counts.incrementAndGet(indexOf(v));
+		count.increment();
+		sum.add(v);
+		max.accumulateAndGet(v, Math::max);
+	}
+
+	public long count() {
+		return count.sum();
+	}
+
+	public long max() {
+		return max.get();
+	}
+
+	public double mean() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double) sum.sum() / n;
+	}
+
+	/** Upper bound of the bucket holding the given percentile (0.0 - 1.0), capped at the maximum seen. */
+	public long percentile(double p) {
+		long total = count.sum();
+		if (total == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(p * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= target) {
+				return Math.min(highestValueIn(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/** Adds every value recorded in {@code other} to this histogram. */
+	void add(LogHistogram other) {
+		for (int i = 0; i < BUCKETS; i++) {
+			long n = other.counts.get(i);
+			if (n != 0) {
+				counts.addAndGet(i, n);
+			}
+		}
+		count.add(other.count.sum());
+		sum.add(other.sum.sum());
+		max.accumulateAndGet(other.max.get(), Math::max);
+	}
+
+	public Snapshot snapshot() {
+		return new Snapshot(count(), mean(), percentile(0.50), percentile(0.90), percentile(0.99), max());
+	}
+
+	static int indexOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+		return (shift + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long highestValueIn(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		long subBucket = index % SUB_BUCKETS;
+		long next = (SUB_BUCKETS + subBucket + 1) << shift;
+		return next < 0 ? Long.MAX_VALUE : next - 1;
+	}
+
+	public record Snapshot(long count, double mean, long p50, long p90, long p99, long max) {
+
+		public String toMillisString() {
+			return String.format("n=%d mean=%.2fms p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms",
+					count, mean / 1e6, p50 / 1e6, p90 / 1e6, p99 / 1e6, max / 1e6);
+		}
+
+		public String toMicrosString() {
+			return String.format("n=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus max=%.1fus",
+					count, mean / 1e3, p50 / 1e3, p90 / 1e3, p99 / 1e3, max / 1e3);
+		}
+	}
+}
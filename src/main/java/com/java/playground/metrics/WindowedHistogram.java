@@ -0,0 +1,83 @@
+package com.java.playground.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link LogHistogram} over a sliding time window, so percentiles follow the recent behaviour instead of
+ * the whole lifetime. The window is a ring of slices; each records for {@code window / slices} and is
+ * replaced by a fresh one when its turn comes round again. Reads merge the slices still inside the window,
+ * so the window moves in steps of one slice.
+ */
+public final class WindowedHistogram {
+
+	private final long sliceNanos;
+	private final AtomicReferenceArray<Slice> slices;
+
+	/** One minute in six slices of ten seconds. */
+	public WindowedHistogram() {
+		this(Duration.ofMinutes(1), 6);
+	}
+
+	public WindowedHistogram(Duration window, int sliceCount) {
+		if (sliceCount < 1) {
+			throw new IllegalArgumentException("sliceCount must be positive, got " + sliceCount);
+		}
+		this.sliceNanos = Math.max(1, window.toNanos() / sliceCount);
+		this.slices = new AtomicReferenceArray<>(sliceCount);
+	}
+
+	public void record(long value) {
+		long epoch = epoch();
+		int index = (int) Math.floorMod(epoch, (long) slices.length());
+		Slice slice = slices.get(index);
+		// A slice from an earlier round is stale; a newer one (this thread was delayed) is close enough
+		while (slice == null || slice.epoch < epoch) {
+			Slice fresh = new Slice(epoch);
+			if (slices.compareAndSet(index, slice, fresh)) {
+				slice = fresh;
+			} else {
+				slice = slices.get(index);
+			}
+		}
+		slice.histogram.record(value);
+	}
+
+	/** Merged copy of the slices inside the window. */
+	public LogHistogram merged() {
+		long oldest = epoch() - slices.length() + 1;
+		LogHistogram merged = new LogHistogram();
+		for (int i = 0; i < slices.length(); i++) {
+			Slice slice = slices.get(i);
+			if (slice != null && slice.epoch >= oldest) {
+				merged.add(slice.histogram);
+			}
+		}
+		return merged;
+	}
+
+	public long count() {
+		return merged().count();
+	}
+
+	public long percentile(double p) {
+		return merged().percentile(p);
+	}
+
+	public LogHistogram.Snapshot snapshot() {
+		return merged().snapshot();
+	}
+
+	private long epoch() {
+		return Math.floorDiv(System.nanoTime(), sliceNanos);
+	}
+
+	private static final class Slice {
+		final long epoch;
+		final LogHistogram histogram = new LogHistogram();
+
+		Slice(long epoch) {
+			this.epoch = epoch;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.java.playground.startup;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.java.playground.metrics.ExecutorPoolRegistry;
+
+/**
+ * Application init work, declared with its dependencies and run by a {@link StartupOrchestrator} on the
+ * worker pool. Spring Boot publishes readiness only after all {@link ApplicationRunner}s return, so
+ * traffic is not accepted until every init task has finished. The task bodies stand in for the real
+ * config load, connection pool fill, cache warmup and index load.
+ */
+@Configuration(proxyBeanMethods = false)
+public class StartupConfiguration {
+
+	private static final Logger log = LoggerFactory.getLogger(StartupConfiguration.class);
+
+	@Bean
+	public StartupOrchestrator startupOrchestrator() {
+		return new StartupOrchestrator()
+				.task("configLoad", () -> simulateWork(20))
+				.task("connectionPoolFill", () -> simulateWork(40), "configLoad")
+				.task("indexLoad", () -> simulateWork(60), "configLoad")
+				.task("cacheWarmup", () -> simulateWork(50), "connectionPoolFill");
+	}
+
+	@Bean
+	public ApplicationRunner startupRunner(StartupOrchestrator orchestrator, ExecutorPoolRegistry pools,
+			@Value("${startup.timeout-seconds:30}") long timeoutSeconds) {
+		return args -> {
+			orchestrator.start(pools.pool("workerPool"));
+			StartupOrchestrator.Timeline timeline = orchestrator.awaitReady(timeoutSeconds, TimeUnit.SECONDS);
+			log.info("Startup timeline:\n{}", timeline);
+			if (!timeline.unsuccessful().isEmpty()) {
+				throw new IllegalStateException("Init tasks did not complete: " + timeline.unsuccessful().stream()
+						.map(entry -> entry.name() + " " + entry.status())
+						.toList());
+			}
+		};
+	}
+
+	private static void simulateWork(long millis) throws InterruptedException {
+		Thread.sleep(millis);
+	}
+}
@@ -0,0 +1,274 @@
+package com.java.playground.startup;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs application init tasks in parallel as far as their declared dependencies allow, and holds
+ * readiness on a {@link CountDownLatch} until every task has finished. A task is handed to the executor
+ * only once its last dependency is done; it never occupies a thread while waiting. If a task fails, the
+ * tasks that depend on it are skipped rather than run against a half-initialized application.
+ * <p>
+ * Every run records a {@link Timeline}: start offset, duration and thread per task, plus the critical
+ * path, so a slower cold start shows which task grew.
+ */
+public class StartupOrchestrator {
+
+	/** One unit of init work; may throw, which fails it and skips its dependents. */
+	@FunctionalInterface
+	public interface InitTask {
+		void run() throws Exception;
+	}
+
+	public enum Status {
+		PENDING, RUNNING, DONE, FAILED, SKIPPED
+	}
+
+	private final Map<String, Task> tasks = new LinkedHashMap<>();
+	private CountDownLatch ready;
+	private long startedAt;
+
+	public synchronized StartupOrchestrator task(String name, InitTask action, String... dependsOn) {
+		if (ready != null) {
+			throw new IllegalStateException("Startup already running, cannot add " + name);
+		}
+		if (tasks.putIfAbsent(name, new Task(name, action, List.of(dependsOn))) != null) {
+			throw new IllegalArgumentException("Init task already declared: " + name);
+		}
+		return this;
+	}
+
+	/** Validates the dependency graph and starts every task that has no dependencies. */
+	public synchronized void start(Executor executor) {
+		if (ready != null) {
+			throw new IllegalStateException("Startup already running");
+		}
+		topologicalOrder();
+		for (Task task : tasks.values()) {
+			task.pendingDependencies.set(task.dependsOn.size());
+			for (String dependency : task.dependsOn) {
+				tasks.get(dependency).dependents.add(task);
+			}
+		}
+		ready = new CountDownLatch(tasks.size());
+		startedAt = System.nanoTime();
+		for (Task task : tasks.values()) {
+			if (task.dependsOn.isEmpty()) {
+				execute(executor, task);
+			}
+		}
+	}
+
+	/** Blocks until every task is done, failed or skipped; the timeline tells which. */
+	public Timeline awaitReady(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+		CountDownLatch latch = latch();
+		if (!latch.await(timeout, unit)) {
+			List<String> unfinished = new ArrayList<>();
+			tasks.values().forEach(task -> {
+				if (task.status == Status.PENDING || task.status == Status.RUNNING) {
+					unfinished.add(task.name + " (" + task.status + ")");
+				}
+			});
+			throw new TimeoutException("Startup not ready after " + timeout + " " + unit + ": " + unfinished);
+		}
+		return timeline();
+	}
+
+	public boolean isReady() {
+		CountDownLatch latch;
+		synchronized (this) {
+			latch = ready;
+		}
+		return latch != null && latch.getCount() == 0;
+	}
+
+	private synchronized CountDownLatch latch() {
+		if (ready == null) {
+			throw new IllegalStateException("Startup not started");
+		}
+		return ready;
+	}
+
+	private void execute(Executor executor, Task task) {
+		executor.execute(() -> {
+			task.startNanos = System.nanoTime() - startedAt;
+			task.thread = Thread.currentThread().getName();
+			task.status = Status.RUNNING;
+			try {
+				task.action.run();
+				task.status = Status.DONE;
+			} catch (Throwable e) {
+				// Errors too: a task that dies without finish() would leave its dependents and await() hanging
+				task.failure = e;
+				task.status = Status.FAILED;
+			} finally {
+				task.endNanos = System.nanoTime() - startedAt;
+			}
+			finish(executor, task);
+		});
+	}
+
+	// Releases dependents whose last dependency this was; skips them if any dependency did not succeed
+	private void finish(Executor executor, Task task) {
+		for (Task dependent : task.dependents) {
+			if (dependent.pendingDependencies.decrementAndGet() > 0) {
+				continue;
+			}
+			boolean runnable = dependent.dependsOn.stream().allMatch(name -> tasks.get(name).status == Status.DONE);
+			if (runnable) {
+				execute(executor, dependent);
+			} else {
+				dependent.status = Status.SKIPPED;
+				dependent.startNanos = dependent.endNanos = System.nanoTime() - startedAt;
+				finish(executor, dependent);
+			}
+		}
+		ready.countDown();
+	}
+
+	// Kahn's algorithm; rejects unknown dependencies and cycles before anything runs
+	private List<Task> topologicalOrder() {
+		Map<String, Integer> inDegree = new HashMap<>();
+		Map<String, List<Task>> dependents = new HashMap<>();
+		for (Task task : tasks.values()) {
+			for (String dependency : task.dependsOn) {
+				if (!tasks.containsKey(dependency)) {
+					throw new IllegalStateException(task.name + " depends on unknown task " + dependency);
+				}
+				dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(task);
+			}
+			inDegree.put(task.name, task.dependsOn.size());
+		}
+		Deque<Task> queue = new ArrayDeque<>();
+		tasks.values().stream().filter(task -> task.dependsOn.isEmpty()).forEach(queue::add);
+		List<Task> order = new ArrayList<>();
+		while (!queue.isEmpty()) {
+			Task task = queue.poll();
+			order.add(task);
+			for (Task dependent : dependents.getOrDefault(task.name, List.of())) {
+				if (inDegree.merge(dependent.name, -1, Integer::sum) == 0) {
+					queue.add(dependent);
+				}
+			}
+		}
+		if (order.size() != tasks.size()) {
+			List<String> cyclic = new ArrayList<>();
+			inDegree.forEach((name, degree) -> {
+				if (degree > 0) {
+					cyclic.add(name);
+				}
+			});
+			throw new IllegalStateException("Dependency cycle between init tasks " + cyclic);
+		}
+		return order;
+	}
+
+	/** Snapshot of the run so far; complete once {@link #awaitReady} has returned. */
+	public Timeline timeline() {
+		List<Task> order = topologicalOrder();
+		List<Timeline.Entry> entries = new ArrayList<>();
+		for (Task task : order) {
+			entries.add(new Timeline.Entry(task.name, task.status, TimeUnit.NANOSECONDS.toMillis(task.startNanos),
+					TimeUnit.NANOSECONDS.toMillis(task.endNanos - task.startNanos), task.thread, task.dependsOn,
+					task.failure));
+		}
+		entries.sort((a, b) -> Long.compare(a.startMs(), b.startMs()));
+		return new Timeline(entries, criticalPath(order));
+	}
+
+	// Longest chain of durations through the graph - the lower bound on startup time
+	private static List<String> criticalPath(List<Task> topologicalOrder) {
+		Map<String, Long> pathNanos = new HashMap<>();
+		Map<String, String> previous = new HashMap<>();
+		String last = null;
+		for (Task task : topologicalOrder) {
+			long longestDependency = 0;
+			for (String dependency : task.dependsOn) {
+				if (pathNanos.get(dependency) > longestDependency) {
+					longestDependency = pathNanos.get(dependency);
+					previous.put(task.name, dependency);
+				}
+			}
+			pathNanos.put(task.name, longestDependency + Math.max(0, task.endNanos - task.startNanos));
+			if (last == null || pathNanos.get(task.name) > pathNanos.get(last)) {
+				last = task.name;
+			}
+		}
+		List<String> path = new ArrayList<>();
+		for (String name = last; name != null; name = previous.get(name)) {
+			path.add(name);
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+	/** Per-task startup timeline; {@link #toString()} renders it as a text Gantt chart. */
+	public record Timeline(List<Entry> entries, List<String> criticalPath) {
+
+		public record Entry(String name, Status status, long startMs, long durationMs, String thread,
+				List<String> dependsOn, Throwable failure) {
+		}
+
+		public long wallMillis() {
+			return entries.stream().mapToLong(entry -> entry.startMs() + entry.durationMs()).max().orElse(0);
+		}
+
+		/** What startup would take if the tasks ran one after another. */
+		public long serialMillis() {
+			return entries.stream().mapToLong(Entry::durationMs).sum();
+		}
+
+		public List<Entry> unsuccessful() {
+			return entries.stream().filter(entry -> entry.status() != Status.DONE).toList();
+		}
+
+		@Override
+		public String toString() {
+			long wall = Math.max(1, wallMillis());
+			int width = 40;
+			StringBuilder sb = new StringBuilder();
+			for (Entry entry : entries) {
+				int from = (int) (entry.startMs() * width / wall);
+				int length = Math.max(1, (int) (entry.durationMs() * width / wall));
+				String bar = " ".repeat(from) + "#".repeat(Math.min(length, width - from));
+				sb.append(String.format("%-20s |%-" + width + "s| %5dms +%dms %-7s %s%n", entry.name(), bar,
+						entry.durationMs(), entry.startMs(), entry.status(),
+						entry.failure() != null ? entry.failure() : entry.thread() == null ? "" : entry.thread()));
+			}
+			sb.append(String.format("wall %dms, serial %dms, critical path %s", wallMillis(), serialMillis(),
+					String.join(" -> ", criticalPath)));
+			return sb.toString();
+		}
+	}
+
+	private static final class Task {
+		final String name;
+		final InitTask action;
+		final List<String> dependsOn;
+		final List<Task> dependents = new ArrayList<>();
+		final AtomicInteger pendingDependencies = new AtomicInteger();
+
+		volatile Status status = Status.PENDING;
+		volatile long startNanos;
+		volatile long endNanos;
+		volatile String thread;
+		volatile Throwable failure;
+
+		Task(String name, InitTask action, List<String> dependsOn) {
+			this.name = name;
+			this.action = action;
+			this.dependsOn = dependsOn;
+		}
+	}
+}
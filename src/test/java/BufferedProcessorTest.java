@@ -0,0 +1,218 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BufferedProcessorTest {
+
+	@Test
+	void deliversOnlyWhatWasRequestedThenCompletes() throws InterruptedException {
+		BufferedProcessor processor = new BufferedProcessor(4);
+		RecordingSubscriber subscriber = new RecordingSubscriber(2);
+		processor.subscribe(subscriber);
+		CountingPublisher publisher = new CountingPublisher(4);
+		publisher.subscribe(processor);
+
+		awaitItems(subscriber, 2);
+		Thread.sleep(50);
+		assertEquals(List.of("item-1", "item-2"), subscriber.items());
+		assertFalse(subscriber.done.await(0, TimeUnit.MILLISECONDS));
+
+		subscriber.request(10);
+		assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of("item-1", "item-2", "item-3", "item-4"), subscriber.items());
+		assertEquals(1, subscriber.completions.get());
+	}
+
+	@Test
+	void upstreamRequestsAreSerializedAndBoundedByTheBuffer() throws InterruptedException {
+		int items = 5_000;
+		BufferedProcessor processor = new BufferedProcessor(8);
+		// Requests one item at a time from onNext, on the processor's drain thread
+		RecordingSubscriber subscriber = new RecordingSubscriber(1) {
+			@Override
+			public void onNext(String item) {
+				super.onNext(item);
+				request(1);
+			}
+		};
+		processor.subscribe(subscriber);
+		CountingPublisher publisher = new CountingPublisher(items);
+		publisher.subscribe(processor);
+
+		assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+		assertFalse(publisher.overlapped.get(), "request() was called concurrently");
+		assertTrue(publisher.maxOutstanding.get() <= 8, "upstream was asked for " + publisher.maxOutstanding.get());
+		assertEquals(items, subscriber.items().size());
+		assertEquals("item-" + items, subscriber.items().get(items - 1));
+		assertEquals(1, subscriber.completions.get());
+		assertEquals(null, subscriber.error.get());
+	}
+
+	@Test
+	void nothingIsSignalledBeforeOnSubscribeReturns() throws InterruptedException {
+		BufferedProcessor processor = new BufferedProcessor(4);
+		CountingPublisher publisher = new CountingPublisher(3);
+		publisher.subscribe(processor);
+
+		AtomicBoolean subscribeReturned = new AtomicBoolean();
+		AtomicBoolean earlySignal = new AtomicBoolean();
+		RecordingSubscriber subscriber = new RecordingSubscriber(10) {
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				super.onSubscribe(subscription);
+				try {
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				subscribeReturned.set(true);
+			}
+
+			@Override
+			public void onNext(String item) {
+				earlySignal.compareAndSet(false, !subscribeReturned.get());
+				super.onNext(item);
+			}
+		};
+		processor.subscribe(subscriber);
+
+		assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+		assertFalse(earlySignal.get(), "onNext arrived while onSubscribe was still running");
+		assertEquals(3, subscriber.items().size());
+	}
+
+	@Test
+	void nonPositiveRequestFailsTheSubscriberAndCancelsUpstream() throws InterruptedException {
+		BufferedProcessor processor = new BufferedProcessor(4);
+		RecordingSubscriber subscriber = new RecordingSubscriber(1);
+		processor.subscribe(subscriber);
+		CountingPublisher publisher = new CountingPublisher(100);
+		publisher.subscribe(processor);
+
+		awaitItems(subscriber, 1);
+		subscriber.request(0);
+		assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+		assertInstanceOf(IllegalArgumentException.class, subscriber.error.get());
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!publisher.cancelled.get() && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertTrue(publisher.cancelled.get());
+	}
+
+	private static void awaitItems(RecordingSubscriber subscriber, int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (subscriber.items().size() < count) {
+			assertTrue(System.nanoTime() < deadline, "never received " + count + " items");
+			Thread.sleep(1);
+		}
+	}
+
+	// Emits synchronously inside request(), and notes whether two request() calls ever overlapped
+	private static final class CountingPublisher implements Flow.Publisher<String> {
+		final int items;
+		final AtomicBoolean overlapped = new AtomicBoolean();
+		final AtomicBoolean cancelled = new AtomicBoolean();
+		final AtomicLong maxOutstanding = new AtomicLong();
+
+		CountingPublisher(int items) {
+			this.items = items;
+		}
+
+		@Override
+		public void subscribe(Flow.Subscriber<? super String> subscriber) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				private final AtomicBoolean inRequest = new AtomicBoolean();
+				private long outstanding;
+				private int next = 1;
+
+				@Override
+				public void request(long n) {
+					if (!inRequest.compareAndSet(false, true)) {
+						overlapped.set(true);
+						return;
+					}
+					try {
+						outstanding += n;
+						maxOutstanding.accumulateAndGet(outstanding, Math::max);
+						while (outstanding > 0 && next <= items && !cancelled.get()) {
+							outstanding--;
+							subscriber.onNext("item-" + next++);
+						}
+						if (next == items + 1) {
+							next++;
+							subscriber.onComplete();
+						}
+					} finally {
+						inRequest.set(false);
+					}
+				}
+
+				@Override
+				public void cancel() {
+					cancelled.set(true);
+				}
+			});
+		}
+	}
+
+	private static class RecordingSubscriber implements Flow.Subscriber<String> {
+		final int initialRequest;
+		final List<String> items = Collections.synchronizedList(new ArrayList<>());
+		final AtomicInteger completions = new AtomicInteger();
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final CountDownLatch done = new CountDownLatch(1);
+		volatile Flow.Subscription subscription;
+
+		RecordingSubscriber(int initialRequest) {
+			this.initialRequest = initialRequest;
+		}
+
+		void request(long n) {
+			subscription.request(n);
+		}
+
+		List<String> items() {
+			synchronized (items) {
+				return new ArrayList<>(items);
+			}
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(initialRequest);
+		}
+
+		@Override
+		public void onNext(String item) {
+			items.add(item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			error.set(throwable);
+			done.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			completions.incrementAndGet();
+			done.countDown();
+		}
+	}
+}
@@ -0,0 +1,143 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckpointLogTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void reopenedLogResumesPartialCycle() {
+		Path file = dir.resolve("batch.ckpt");
+		try (CheckpointLog log = CheckpointLog.open(file, 4096)) {
+			log.cycleStarted(1, 10);
+			log.taskDone(1, 0);
+			log.taskDone(1, 2);
+			log.taskDone(1, 5);
+			log.cycleStarted(2, 3);
+			for (int item = 0; item < 3; item++) {
+				log.taskDone(2, item);
+			}
+			log.cycleFinished(2);
+		}
+
+		try (CheckpointLog log = CheckpointLog.open(file, 4096)) {
+			CheckpointLog.Recovery recovery = log.recovery();
+			assertEquals(2, recovery.lastCycle());
+			assertEquals(1, recovery.pendingCycles().size());
+			CheckpointLog.PendingCycle pending = recovery.pendingCycles().get(0);
+			assertEquals(1, pending.cycle());
+			assertArrayEquals(new int[] {1, 3, 4, 6, 7, 8, 9}, pending.unfinishedItems());
+		}
+	}
+
+	@Test
+	void compactionKeepsOpenCycles() {
+		Path file = dir.resolve("batch.ckpt");
+		// 64 records - the finished cycles below fill it several times over
+		try (CheckpointLog log = CheckpointLog.open(file, 1024)) {
+			log.cycleStarted(1, 100);
+			for (int item = 0; item < 100; item += 2) {
+				log.taskDone(1, item);
+			}
+			log.cycleStarted(2, 5);
+			log.taskDone(2, 4);
+			for (int cycle = 3; cycle <= 40; cycle++) {
+				log.cycleStarted(cycle, 2);
+				log.taskDone(cycle, 0);
+				log.taskDone(cycle, 1);
+				log.cycleFinished(cycle);
+			}
+			assertTrue(log.compactions() > 0, "expected the log to compact");
+
+			// Appends after the swap land in the new file
+			log.taskDone(1, 1);
+		}
+
+		try (CheckpointLog log = CheckpointLog.open(file, 1024)) {
+			CheckpointLog.Recovery recovery = log.recovery();
+			assertEquals(40, recovery.lastCycle());
+			List<CheckpointLog.PendingCycle> pending = recovery.pendingCycles();
+			assertEquals(2, pending.size());
+
+			CheckpointLog.PendingCycle first = pending.get(0);
+			assertEquals(1, first.cycle());
+			int[] unfinished = first.unfinishedItems();
+			assertEquals(49, unfinished.length);
+			assertEquals(3, unfinished[0]);
+			for (int item : unfinished) {
+				assertEquals(1, item % 2);
+			}
+
+			CheckpointLog.PendingCycle second = pending.get(1);
+			assertEquals(2, second.cycle());
+			assertArrayEquals(new int[] {0, 1, 2, 3}, second.unfinishedItems());
+		}
+	}
+
+	@Test
+	void reopenedLogReadsPastTheCapacityItGrewFrom() throws IOException {
+		Path file = dir.resolve("batch.ckpt");
+		// Finishing the last items of 10000 makes a snapshot too big for 1024 bytes, so compaction grows
+		// the file and the records after it land beyond the starting capacity
+		try (CheckpointLog log = CheckpointLog.open(file, 1024)) {
+			log.cycleStarted(1, 10_000);
+			for (int item = 9_999; item >= 9_799; item--) {
+				log.taskDone(1, item);
+			}
+			assertTrue(log.compactions() > 0, "expected the log to compact");
+			assertTrue(Files.size(file) > 1024, "expected the log to grow");
+		}
+
+		try (CheckpointLog log = CheckpointLog.open(file, 1024)) {
+			int[] unfinished = log.recovery().pendingCycles().get(0).unfinishedItems();
+			assertEquals(9_799, unfinished.length);
+			assertEquals(9_798, unfinished[unfinished.length - 1]);
+		}
+	}
+
+	@Test
+	void finishedLogRecoversNothingAndKeepsNumbering() {
+		Path file = dir.resolve("batch.ckpt");
+		try (CheckpointLog log = CheckpointLog.open(file, 1024)) {
+			for (int cycle = 1; cycle <= 30; cycle++) {
+				log.cycleStarted(cycle, 1);
+				log.taskDone(cycle, 0);
+				log.cycleFinished(cycle);
+			}
+		}
+
+		try (CheckpointLog log = CheckpointLog.open(file, 1024)) {
+			assertEquals(30, log.recovery().lastCycle());
+			assertTrue(log.recovery().pendingCycles().isEmpty());
+		}
+	}
+
+	@Test
+	void emptySlotLeftByUnfinishedWriteIsSkipped() throws IOException {
+		// [int type][int cycle][long value]: cycle 7 started with 3 items, a slot whose writer never
+		// finished, then item 1 done
+		ByteBuffer records = ByteBuffer.allocate(48);
+		records.putInt(1).putInt(7).putLong(3);
+		records.putInt(0).putInt(0).putLong(0);
+		records.putInt(2).putInt(7).putLong(1);
+		Path file = dir.resolve("batch.ckpt");
+		Files.write(file, records.array());
+
+		try (CheckpointLog log = CheckpointLog.open(file, 1024)) {
+			CheckpointLog.PendingCycle pending = log.recovery().pendingCycles().get(0);
+			assertEquals(7, pending.cycle());
+			assertArrayEquals(new int[] {0, 2}, pending.unfinishedItems());
+		}
+	}
+}
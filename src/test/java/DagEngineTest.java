@@ -0,0 +1,113 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DagEngineTest {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@AfterEach
+	void shutDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void valuesFlowAlongTheDeclaredEdges() {
+		DagEngine dag = new DagEngine(executor);
+		DagEngine.Stage<Integer> two = dag.stage("two", () -> 2);
+		DagEngine.Stage<Integer> three = dag.stage("three", () -> 3);
+		DagEngine.Stage<Integer> product = dag.stage("product", two, three, (a, b) -> a * b);
+		DagEngine.Stage<String> label = dag.stage("label", product, value -> "=" + value);
+
+		DagEngine.Run run = dag.run().join();
+		assertEquals(6, run.get(product));
+		assertEquals("=6", run.get(label));
+		assertEquals(List.of("two", "three", "product", "label"),
+				run.timings().stream().map(DagEngine.StageTiming::name).toList());
+	}
+
+	@Test
+	void aFailedStageFailsTheRunAndSkipsItsDependents() {
+		DagEngine dag = new DagEngine(executor);
+		AtomicBoolean dependentRan = new AtomicBoolean();
+		AtomicBoolean independentRan = new AtomicBoolean();
+		DagEngine.Stage<Integer> broken = dag.stage("broken", () -> {
+			throw new IllegalStateException("boom");
+		});
+		DagEngine.Stage<Integer> dependent = dag.stage("dependent", broken, value -> {
+			dependentRan.set(true);
+			return value;
+		});
+		dag.stage("downstream", dependent, value -> {
+			dependentRan.set(true);
+			return value;
+		});
+		dag.stage("independent", () -> {
+			independentRan.set(true);
+			return 1;
+		});
+
+		CompletionException failure = assertThrows(CompletionException.class, () -> dag.run().join());
+		assertEquals("Stage broken failed", failure.getMessage());
+		assertInstanceOf(IllegalStateException.class, failure.getCause());
+		assertFalse(dependentRan.get());
+		assertTrue(independentRan.get());
+	}
+
+	@Test
+	void criticalPathFollowsTheInputThatFinishedLast() {
+		DagEngine dag = new DagEngine(executor);
+		DagEngine.Stage<Integer> quick = dag.stage("quick", () -> sleepThen(20, 1));
+		DagEngine.Stage<Integer> slow = dag.stage("slow", () -> sleepThen(200, 2));
+		DagEngine.Stage<Integer> afterQuick = dag.stage("afterQuick", quick, value -> sleepThen(20, value));
+		dag.stage("join", afterQuick, slow, (a, b) -> sleepThen(20, a + b));
+
+		DagEngine.Run run = dag.run().join();
+		assertEquals(List.of("slow", "join"), run.criticalPath());
+		assertTrue(run.criticalPathMs() >= 220, run.report());
+		assertTrue(run.wallMs() >= run.criticalPathMs(), run.report());
+		assertTrue(run.serialMs() >= 260, run.report());
+	}
+
+	@Test
+	void rejectsInputsFromAnotherDagAndDuplicateNames() {
+		DagEngine dag = new DagEngine(executor);
+		DagEngine other = new DagEngine(executor);
+		DagEngine.Stage<Integer> foreign = other.stage("foreign", () -> 1);
+		dag.stage("one", () -> 1);
+
+		assertThrows(IllegalArgumentException.class, () -> dag.stage("uses", foreign, value -> value));
+		assertThrows(IllegalArgumentException.class, () -> dag.stage("one", () -> 2));
+	}
+
+	@Test
+	void undeclaredInputCannotBeRead() {
+		DagEngine dag = new DagEngine(executor);
+		DagEngine.Stage<Integer> declared = dag.stage("declared", () -> 1);
+		DagEngine.Stage<Integer> hidden = dag.stage("hidden", () -> 2);
+		dag.stage("reader", inputs -> inputs.get(declared) + inputs.get(hidden), declared);
+
+		CompletionException failure = assertThrows(CompletionException.class, () -> dag.run().join());
+		assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+	}
+
+	private static int sleepThen(long millis, int value) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return value;
+	}
+}
@@ -0,0 +1,121 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PhasedComputationTest {
+
+	@Test
+	void everyPhaseReducesAllContributions() throws Exception {
+		int parties = 100;
+		PhasedComputation<Integer> computation = new PhasedComputation<>(0, Integer::sum, (phase, sum) -> phase < 4, 16);
+		List<PhasedComputation<Integer>.Participant> participants = new ArrayList<>();
+		for (int i = 0; i < parties; i++) {
+			participants.add(computation.register());
+		}
+		assertEquals(7, computation.leafCount());
+
+		ExecutorService pool = Executors.newFixedThreadPool(parties);
+		try {
+			List<CompletableFuture<List<Integer>>> seen = new ArrayList<>();
+			for (PhasedComputation<Integer>.Participant participant : participants) {
+				seen.add(CompletableFuture.supplyAsync(() -> {
+					List<Integer> results = new ArrayList<>();
+					while (!participant.isDone()) {
+						results.add(participant.arriveAndAwait(participant.phase() + 1));
+					}
+					return results;
+				}, pool));
+			}
+			for (CompletableFuture<List<Integer>> results : seen) {
+				assertEquals(List.of(100, 200, 300, 400, 500), results.get(10, TimeUnit.SECONDS));
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertTrue(computation.isTerminated());
+		assertEquals(500, computation.result());
+	}
+
+	@Test
+	void partiesJoinAndLeaveBetweenPhases() throws Exception {
+		PhasedComputation<Integer> computation = new PhasedComputation<>(0, Integer::sum, (phase, sum) -> phase < 3, 2);
+		PhasedComputation<Integer>.Participant main = computation.register();
+		PhasedComputation<Integer>.Participant leaver = computation.register();
+
+		// Contributes to phases 0 and 1, then leaves at the start of phase 2
+		CompletableFuture<Void> leaving = CompletableFuture.runAsync(() -> {
+			leaver.arriveAndAwait(1);
+			leaver.arriveAndAwait(1);
+			leaver.deregister();
+		});
+		List<Integer> results = new ArrayList<>();
+		results.add(main.arriveAndAwait(10));
+
+		// Joins in phase 1; the first leaf is full, so it gets a leaf of its own
+		PhasedComputation<Integer>.Participant joiner = computation.register();
+		assertEquals(2, computation.leafCount());
+		CompletableFuture<Void> joining = CompletableFuture.runAsync(() -> {
+			while (!joiner.isDone()) {
+				joiner.arriveAndAwait(100);
+			}
+		});
+		while (!main.isDone()) {
+			results.add(main.arriveAndAwait(10));
+		}
+
+		leaving.get(5, TimeUnit.SECONDS);
+		joining.get(5, TimeUnit.SECONDS);
+		assertEquals(List.of(11, 111, 110, 110), results);
+		assertTrue(computation.isTerminated());
+		assertThrows(IllegalStateException.class, computation::register);
+	}
+
+	@Test
+	void aLeafEmptiedByDeregistrationIsReused() throws Exception {
+		PhasedComputation<Integer> computation = new PhasedComputation<>(0, Integer::sum, (phase, sum) -> false, 1);
+		PhasedComputation<Integer>.Participant first = computation.register();
+		PhasedComputation<Integer>.Participant second = computation.register();
+		first.deregister();
+		assertEquals(1, computation.registeredParties());
+
+		PhasedComputation<Integer>.Participant third = computation.register();
+		assertEquals(2, computation.leafCount());
+		assertEquals(2, computation.registeredParties());
+
+		CompletableFuture<Integer> other = CompletableFuture.supplyAsync(() -> second.arriveAndAwait(2));
+		assertEquals(5, third.arriveAndAwait(3));
+		assertEquals(5, other.get(5, TimeUnit.SECONDS));
+		assertTrue(computation.isTerminated());
+	}
+
+	@Test
+	void plainPhasesRunTheRequestedCount() throws Exception {
+		PhasedComputation<Void> barrier = PhasedComputation.phases(3);
+		PhasedComputation<Void>.Participant a = barrier.register();
+		PhasedComputation<Void>.Participant b = barrier.register();
+		CompletableFuture<Integer> other = CompletableFuture.supplyAsync(() -> {
+			int phases = 0;
+			while (!b.isDone()) {
+				b.arriveAndAwait(null);
+				phases++;
+			}
+			return phases;
+		});
+		int phases = 0;
+		while (!a.isDone()) {
+			a.arriveAndAwait(null);
+			phases++;
+		}
+		assertEquals(3, phases);
+		assertEquals(3, other.get(5, TimeUnit.SECONDS));
+	}
+}
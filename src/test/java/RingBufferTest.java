@@ -0,0 +1,176 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferTest {
+
+	@Test
+	void keepsFifoOrderAcrossManyLaps() {
+		RingBuffer<Integer> ring = new RingBuffer<>(4);
+		int next = 0;
+		int expected = 0;
+		// Offset the cursors by three so every lap straddles the end of the array
+		for (int lap = 0; lap < 100; lap++) {
+			while (ring.offer(next)) {
+				next++;
+			}
+			assertTrue(ring.isFull());
+			assertEquals(4, ring.size());
+			for (int i = 0; i < 3; i++) {
+				assertEquals(expected++, ring.poll());
+			}
+		}
+		while (!ring.isEmpty()) {
+			assertEquals(expected++, ring.poll());
+		}
+		assertEquals(next, expected);
+		assertNull(ring.poll());
+	}
+
+	@Test
+	void drainToCopiesSlotsThatWrapPastTheEnd() {
+		RingBuffer<Integer> ring = new RingBuffer<>(4);
+		for (int i = 0; i < 3; i++) {
+			ring.offer(i);
+			ring.poll();
+		}
+		for (int i = 0; i < 4; i++) {
+			assertTrue(ring.offer(i));
+		}
+		assertFalse(ring.offer(4));
+
+		List<Integer> drained = new ArrayList<>();
+		assertEquals(2, ring.drainTo(drained, 2));
+		assertEquals(2, ring.drainTo(drained));
+		assertEquals(List.of(0, 1, 2, 3), drained);
+		assertTrue(ring.isEmpty());
+		assertEquals(0, ring.drainTo(drained));
+	}
+
+	@Test
+	void rejectsCapacitiesThatAreNotAPowerOfTwo() {
+		assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(6));
+		assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(1));
+		assertThrows(NullPointerException.class, () -> new RingBuffer<String>(2).offer(null));
+	}
+
+	@Test
+	void blockedProducerWakesWhenASlotFrees() throws Exception {
+		RingBuffer<String> ring = new RingBuffer<>(2, RingBuffer.WaitStrategy.BLOCK);
+		ring.put("a");
+		ring.put("b");
+		Thread producer = new Thread(() -> {
+			try {
+				ring.put("c");
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		producer.start();
+		awaitState(producer, Thread.State.WAITING);
+
+		assertEquals("a", ring.take());
+		producer.join(5_000);
+		assertFalse(producer.isAlive());
+		assertEquals("b", ring.take());
+		assertEquals("c", ring.take());
+	}
+
+	@Test
+	void blockedConsumerWakesOnPutAndTimedPollGivesUp() throws Exception {
+		RingBuffer<String> ring = new RingBuffer<>(2, RingBuffer.WaitStrategy.BLOCK);
+		long start = System.nanoTime();
+		assertNull(ring.poll(50, TimeUnit.MILLISECONDS));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+
+		CompletableFuture<String> consumer = new CompletableFuture<>();
+		Thread thread = new Thread(() -> {
+			try {
+				consumer.complete(ring.take());
+			} catch (InterruptedException e) {
+				consumer.completeExceptionally(e);
+			}
+		});
+		thread.start();
+		awaitState(thread, Thread.State.WAITING);
+		ring.put("x");
+		assertEquals("x", consumer.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void blockedTakeAnswersInterrupt() throws Exception {
+		RingBuffer<String> ring = new RingBuffer<>(2, RingBuffer.WaitStrategy.BLOCK);
+		CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+		Thread thread = new Thread(() -> {
+			try {
+				ring.take();
+				outcome.complete(null);
+			} catch (InterruptedException e) {
+				outcome.complete(e);
+			}
+		});
+		thread.start();
+		awaitState(thread, Thread.State.WAITING);
+		thread.interrupt();
+		assertTrue(outcome.get(5, TimeUnit.SECONDS) instanceof InterruptedException);
+	}
+
+	@Test
+	void everyElementIsDeliveredOnceUnderContention() throws Exception {
+		// SPIN is left out: with more spinning threads than cores it only makes progress when the scheduler preempts
+		for (RingBuffer.WaitStrategy strategy : EnumSet.complementOf(EnumSet.of(RingBuffer.WaitStrategy.SPIN))) {
+			RingBuffer<Integer> ring = new RingBuffer<>(8, strategy);
+			int producers = 3;
+			int perProducer = 20_000;
+			ConcurrentHashMap.KeySetView<Integer, Boolean> seen = ConcurrentHashMap.newKeySet();
+			ExecutorService pool = Executors.newFixedThreadPool(producers * 2);
+			try {
+				List<Future<?>> tasks = new ArrayList<>();
+				for (int p = 0; p < producers; p++) {
+					int base = p * perProducer;
+					tasks.add(pool.submit(() -> {
+						for (int i = 0; i < perProducer; i++) {
+							ring.put(base + i);
+						}
+						return null;
+					}));
+					tasks.add(pool.submit(() -> {
+						for (int i = 0; i < perProducer; i++) {
+							assertTrue(seen.add(ring.take()), "delivered twice");
+						}
+						return null;
+					}));
+				}
+				for (Future<?> task : tasks) {
+					task.get(30, TimeUnit.SECONDS);
+				}
+			} finally {
+				pool.shutdownNow();
+			}
+			assertEquals(producers * perProducer, seen.size(), strategy.name());
+			assertTrue(ring.isEmpty());
+		}
+	}
+
+	private static void awaitState(Thread thread, Thread.State state) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (thread.getState() != state) {
+			assertTrue(System.nanoTime() < deadline, thread.getName() + " never reached " + state);
+			Thread.sleep(1);
+		}
+	}
+}
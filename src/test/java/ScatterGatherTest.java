@@ -0,0 +1,159 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScatterGatherTest {
+
+	private static final Duration LONG = Duration.ofSeconds(10);
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+	@AfterEach
+	void shutDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void quorumFinishesEarlyAndInterruptsTheStragglers() throws Exception {
+		CountDownLatch started = new CountDownLatch(2);
+		CountDownLatch interrupted = new CountDownLatch(2);
+		// The quick shards answer once both slow ones are running, so the two are interrupted rather than never started
+		List<Callable<Integer>> shards = List.of(answerAfter(started, 0), answerAfter(started, 1),
+				hang(started, interrupted), answerAfter(started, 3), hang(started, interrupted));
+
+		ScatterGather.Result<Integer> result = ScatterGather.gather(shards, executor, 3, LONG).get(5, TimeUnit.SECONDS);
+		assertEquals(ScatterGather.Outcome.QUORUM, result.outcome());
+		assertTrue(result.quorumMet());
+		assertEquals(3, result.succeeded());
+		assertEquals(2, result.cancelled());
+		assertEquals(3, result.get(3));
+		assertFalse(result.isPresent(2));
+		assertNull(result.get(4));
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS), "stragglers were not interrupted");
+	}
+
+	@Test
+	void deadlineReturnsWhatHasArrived() throws Exception {
+		CountDownLatch interrupted = new CountDownLatch(2);
+		List<Callable<Integer>> shards = List.of(hang(interrupted), answer(1), hang(interrupted));
+
+		ScatterGather.Result<Integer> result =
+				ScatterGather.allOf(shards, executor, Duration.ofMillis(100)).get(5, TimeUnit.SECONDS);
+		assertEquals(ScatterGather.Outcome.DEADLINE, result.outcome());
+		assertFalse(result.quorumMet());
+		assertEquals(1, result.succeeded());
+		assertEquals(1, result.get(1));
+		assertTrue(result.elapsedMs() >= 100, result.toString());
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS), "stragglers were not interrupted");
+	}
+
+	@Test
+	void quorumGivesUpOnceTooManyShardsFailed() throws Exception {
+		CountDownLatch interrupted = new CountDownLatch(1);
+		List<Callable<Integer>> shards = List.of(fail(), hang(interrupted), fail());
+
+		ScatterGather.Result<Integer> result = ScatterGather.gather(shards, executor, 2, LONG).get(5, TimeUnit.SECONDS);
+		assertEquals(ScatterGather.Outcome.QUORUM_UNREACHABLE, result.outcome());
+		assertEquals(2, result.failed());
+		assertEquals(1, result.cancelled());
+	}
+
+	@Test
+	void allOfWaitsThroughFailuresUntilEveryShardSettled() throws Exception {
+		List<Callable<Integer>> shards = List.of(fail(), answer(1), fail(), answer(3));
+
+		ScatterGather.Result<Integer> result = ScatterGather.allOf(shards, executor, LONG).get(5, TimeUnit.SECONDS);
+		assertEquals(ScatterGather.Outcome.ALL_SETTLED, result.outcome());
+		assertFalse(result.quorumMet());
+		assertEquals(2, result.succeeded());
+		assertEquals(2, result.failed());
+		assertEquals(0, result.cancelled());
+		assertNull(result.get(0));
+		assertEquals(3, result.get(3));
+	}
+
+	@Test
+	void cancellingTheGatherInterruptsRunningShards() throws Exception {
+		CountDownLatch started = new CountDownLatch(3);
+		CountDownLatch interrupted = new CountDownLatch(3);
+		List<Callable<Integer>> shards =
+				List.of(hang(started, interrupted), hang(started, interrupted), hang(started, interrupted));
+
+		CompletableFuture<ScatterGather.Result<Integer>> gather = ScatterGather.allOf(shards, executor, LONG);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		gather.cancel(false);
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS), "shards kept running after the gather was cancelled");
+	}
+
+	@Test
+	void rejectedShardsCountAsFailed() throws Exception {
+		List<Callable<Integer>> shards = List.of(answer(0), answer(1));
+
+		ScatterGather.Result<Integer> result = ScatterGather.allOf(shards, command -> {
+			throw new RejectedExecutionException("saturated");
+		}, LONG).get(5, TimeUnit.SECONDS);
+		assertEquals(ScatterGather.Outcome.ALL_SETTLED, result.outcome());
+		assertEquals(2, result.failed());
+		assertEquals(0, result.succeeded());
+	}
+
+	@Test
+	void emptyAndOutOfRangeQuorums() throws Exception {
+		ScatterGather.Result<Integer> empty =
+				ScatterGather.<Integer>anyOf(new ArrayList<>(), executor, LONG).get(5, TimeUnit.SECONDS);
+		assertEquals(ScatterGather.Outcome.QUORUM, empty.outcome());
+		assertEquals(0, empty.size());
+		assertThrows(IllegalArgumentException.class, () -> ScatterGather.gather(List.of(answer(0)), executor, 2, LONG));
+	}
+
+	private static Callable<Integer> answer(int value) {
+		return () -> value;
+	}
+
+	private static Callable<Integer> fail() {
+		return () -> {
+			throw new IllegalStateException("shard down");
+		};
+	}
+
+	private static Callable<Integer> answerAfter(CountDownLatch started, int value) {
+		return () -> {
+			started.await();
+			return value;
+		};
+	}
+
+	// Runs until interrupted, then counts the interrupt down
+	private static Callable<Integer> hang(CountDownLatch interrupted) {
+		return hang(new CountDownLatch(0), interrupted);
+	}
+
+	private static Callable<Integer> hang(CountDownLatch started, CountDownLatch interrupted) {
+		return () -> {
+			started.countDown();
+			try {
+				Thread.sleep(LONG.toMillis());
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+				throw e;
+			}
+			return -1;
+		};
+	}
+}
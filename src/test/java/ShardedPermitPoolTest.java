@@ -0,0 +1,101 @@
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedPermitPoolTest {
+
+	@Test
+	void weightedAcquireCollectsFromEveryShard() throws InterruptedException {
+		ShardedPermitPool pool = new ShardedPermitPool(8, 4, false);
+		pool.acquire(8);
+		assertEquals(0, pool.availablePermits());
+		assertFalse(pool.tryAcquire(1));
+
+		pool.release(8);
+		assertEquals(8, pool.availablePermits());
+	}
+
+	@Test
+	void weightAboveTheTotalIsRejected() {
+		ShardedPermitPool pool = new ShardedPermitPool(4, 2, true);
+		assertThrows(IllegalArgumentException.class, () -> pool.acquire(5));
+		assertThrows(IllegalArgumentException.class, () -> pool.tryAcquire(0));
+		assertThrows(IllegalArgumentException.class, () -> pool.release(5));
+		assertEquals(0, pool.queueLength());
+	}
+
+	@Test
+	void timedAcquireGivesUpAndLeavesTheQueue() throws InterruptedException {
+		ShardedPermitPool pool = new ShardedPermitPool(2, 2, true);
+		pool.acquire(2);
+		long start = System.nanoTime();
+		assertFalse(pool.tryAcquire(1, 50, TimeUnit.MILLISECONDS));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+		assertEquals(0, pool.queueLength());
+		pool.release(2);
+		assertTrue(pool.tryAcquire(2));
+	}
+
+	@Test
+	void fairQueueHeadIsServedBeforeNewcomers() throws Exception {
+		ShardedPermitPool pool = new ShardedPermitPool(4, 2, true);
+		pool.acquire(4);
+		CompletableFuture<Void> heavy = CompletableFuture.runAsync(() -> acquireUninterruptibly(pool, 3));
+		awaitQueueLength(pool, 1);
+
+		// Enough for a newcomer, not for the head: the newcomer must not jump the queue
+		pool.release(2);
+		assertFalse(pool.tryAcquire(1));
+		assertFalse(heavy.isDone());
+
+		pool.release(2);
+		heavy.get(5, TimeUnit.SECONDS);
+		assertEquals(1, pool.availablePermits());
+	}
+
+	@Test
+	void weightedWaiterParksWithoutSpinning() throws Exception {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		ShardedPermitPool pool = new ShardedPermitPool(8, 4, true);
+		pool.acquire(6);
+		Thread waiter = new Thread(() -> acquireUninterruptibly(pool, 4), "weighted-waiter");
+		waiter.start();
+		awaitQueueLength(pool, 1);
+
+		// Two permits free, four wanted: the waiter takes a partial set, gives it back and must stay parked
+		long cpuBefore = threads.getThreadCpuTime(waiter.threadId());
+		Thread.sleep(300);
+		long cpuUsed = threads.getThreadCpuTime(waiter.threadId()) - cpuBefore;
+		assertTrue(cpuUsed < TimeUnit.MILLISECONDS.toNanos(50),
+				"waiter burned " + TimeUnit.NANOSECONDS.toMillis(cpuUsed) + " ms of CPU while parked");
+
+		pool.release(2);
+		waiter.join(5_000);
+		assertFalse(waiter.isAlive());
+		assertEquals(0, pool.availablePermits());
+	}
+
+	private static void acquireUninterruptibly(ShardedPermitPool pool, int n) {
+		try {
+			pool.acquire(n);
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void awaitQueueLength(ShardedPermitPool pool, int length) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (pool.queueLength() != length) {
+			assertTrue(System.nanoTime() < deadline, "queue never reached " + length);
+			Thread.sleep(1);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedResourceWithLockTest {
+
+	private static final List<String> BATCH = List.of("a", "b", "c", "d", "e");
+
+	@Test
+	void produceAllInsertsTheWholeBatchAcrossWakeups() throws Exception {
+		SharedResourceWithLock resource = new SharedResourceWithLock(2);
+		CompletableFuture<Integer> producer = CompletableFuture.supplyAsync(() -> resource.produceAll(BATCH));
+
+		List<String> received = new ArrayList<>();
+		while (received.size() < BATCH.size()) {
+			resource.drainTo(received, BATCH.size(), 1, TimeUnit.SECONDS);
+		}
+		assertEquals(BATCH.size(), producer.get(5, TimeUnit.SECONDS));
+		assertEquals(BATCH, received);
+	}
+
+	@Test
+	void interruptedProduceAllReportsThePartialInsert() throws Exception {
+		SharedResourceWithLock resource = new SharedResourceWithLock(2);
+		assertPartialInsert(resource::produceAll, resource::drainTo);
+		assertEquals(0, resource.size());
+	}
+
+	@Test
+	void interruptedMonitorProduceAllReportsThePartialInsert() throws Exception {
+		SharedResource resource = new SharedResource(2, false);
+		assertPartialInsert(resource::produceAll, resource::drainTo);
+	}
+
+	// Two of the five items fit; the producer then waits for space and is interrupted
+	private static void assertPartialInsert(Function<List<String>, Integer> produceAll, Drain drain)
+			throws Exception {
+		int[] inserted = new int[1];
+		boolean[] interruptedAfter = new boolean[1];
+		Thread producer = new Thread(() -> {
+			inserted[0] = produceAll.apply(BATCH);
+			interruptedAfter[0] = Thread.currentThread().isInterrupted();
+		});
+		producer.start();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (producer.getState() != Thread.State.WAITING) {
+			assertTrue(System.nanoTime() < deadline, "producer never waited for space");
+			Thread.sleep(1);
+		}
+		producer.interrupt();
+		producer.join(5_000);
+
+		assertEquals(2, inserted[0]);
+		assertTrue(interruptedAfter[0], "interrupt flag must be set again");
+		List<String> buffered = new ArrayList<>();
+		assertEquals(2, drain.drainTo(buffered, Integer.MAX_VALUE));
+		assertEquals(BATCH.subList(0, 2), buffered);
+	}
+
+	private interface Drain {
+		int drainTo(List<String> target, int maxElements);
+	}
+}
@@ -0,0 +1,92 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpscQueueTest {
+
+	@Test
+	void fillsToCapacityAndWrapsInOrder() {
+		SpscQueue<Integer> queue = new SpscQueue<>(4);
+		int next = 0;
+		int expected = 0;
+		for (int lap = 0; lap < 100; lap++) {
+			while (queue.offer(next)) {
+				next++;
+			}
+			assertEquals(4, queue.size());
+			assertEquals(expected++, queue.poll());
+			assertEquals(expected++, queue.poll());
+		}
+		while (!queue.isEmpty()) {
+			assertEquals(expected++, queue.poll());
+		}
+		assertEquals(next, expected);
+		assertNull(queue.poll());
+	}
+
+	@Test
+	void capacityOneHoldsASingleElement() {
+		SpscQueue<String> queue = new SpscQueue<>(1);
+		assertTrue(queue.offer("a"));
+		assertFalse(queue.offer("b"));
+		assertEquals("a", queue.poll());
+		assertTrue(queue.offer("b"));
+		assertEquals("b", queue.poll());
+	}
+
+	@Test
+	void rejectsBadArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new SpscQueue<>(3));
+		assertThrows(IllegalArgumentException.class, () -> new SpscQueue<>(0));
+		assertThrows(NullPointerException.class, () -> new SpscQueue<String>(2).offer(null));
+	}
+
+	@Test
+	void handsOffEveryElementInOrderBetweenTwoThreads() throws Exception {
+		int messages = 1_000_000;
+		SpscQueue<Integer> queue = new SpscQueue<>(64);
+		CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+			try {
+				for (int i = 0; i < messages; i++) {
+					queue.put(i);
+				}
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		for (int i = 0; i < messages; i++) {
+			assertEquals(i, queue.take());
+		}
+		producer.get(10, TimeUnit.SECONDS);
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	void timedPollGivesUpAndTakeAnswersInterrupt() throws Exception {
+		SpscQueue<String> queue = new SpscQueue<>(2);
+		long start = System.nanoTime();
+		assertNull(queue.poll(20, TimeUnit.MILLISECONDS));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+
+		CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+		Thread consumer = new Thread(() -> {
+			try {
+				queue.take();
+				outcome.complete(null);
+			} catch (InterruptedException e) {
+				outcome.complete(e);
+			}
+		});
+		consumer.start();
+		Thread.sleep(20);
+		consumer.interrupt();
+		assertTrue(outcome.get(5, TimeUnit.SECONDS) instanceof InterruptedException);
+	}
+}
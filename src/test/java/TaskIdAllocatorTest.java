@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TaskIdAllocatorTest {
+
+	private static final int THREADS = 8;
+	private static final int IDS_PER_THREAD = 500_000;
+
+	@Test
+	void idsAreUniqueAcrossMillionsOfTasks() throws Exception {
+		TaskIdAllocator allocator = new TaskIdAllocator(0, 256);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<long[]>> results = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				boolean useBlocks = t % 2 == 0;
+				results.add(pool.submit(() -> {
+					long[] ids = new long[IDS_PER_THREAD];
+					start.await();
+					int i = 0;
+					while (i < ids.length) {
+						if (useBlocks) {
+							// Cycle-style: reserve a range and expand it locally
+							TaskIdAllocator.IdBlock block = allocator.allocate(Math.min(100, ids.length - i));
+							for (int offset = 0; offset < block.size(); offset++) {
+								ids[i++] = block.idAt(offset);
+							}
+						} else {
+							ids[i++] = allocator.nextId();
+						}
+					}
+					return ids;
+				}));
+			}
+			start.countDown();
+
+			BitSet seen = new BitSet();
+			int total = 0;
+			for (Future<long[]> result : results) {
+				for (long id : result.get()) {
+					assertFalse(seen.get((int) id), "duplicate id " + id);
+					seen.set((int) id);
+					total++;
+				}
+			}
+			assertEquals(THREADS * IDS_PER_THREAD, total);
+			assertEquals(total, seen.cardinality());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void blocksAreContiguousAndBounded() {
+		TaskIdAllocator allocator = new TaskIdAllocator(10, 4);
+		TaskIdAllocator.IdBlock first = allocator.allocate(5);
+		TaskIdAllocator.IdBlock second = allocator.allocate(3);
+
+		assertEquals(10, first.start());
+		assertEquals(first.end(), second.start());
+		assertEquals(14, first.idAt(4));
+		assertThrows(IndexOutOfBoundsException.class, () -> first.idAt(5));
+		assertEquals(18, allocator.nextId());
+	}
+}
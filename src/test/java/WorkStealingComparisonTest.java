@@ -0,0 +1,37 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WorkStealingComparisonTest {
+
+	@Test
+	void fanOutRunsEveryTaskExactlyOnce() {
+		ForkJoinPool pool = WorkStealingComparison.newAsyncPool(4);
+		try {
+			for (int tasks : new int[] {0, 1, 2, 3, 7, 1000}) {
+				AtomicIntegerArray runs = new AtomicIntegerArray(tasks);
+				pool.invoke(new WorkStealingComparison.FanOut(0, tasks, runs::incrementAndGet));
+				for (int i = 0; i < tasks; i++) {
+					assertEquals(1, runs.get(i), "task " + i + " of " + tasks);
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void emptyRangeDoesNothing() {
+		ForkJoinPool pool = WorkStealingComparison.newAsyncPool(2);
+		try {
+			int[] calls = new int[1];
+			pool.invoke(new WorkStealingComparison.FanOut(5, 5, task -> calls[0]++));
+			assertEquals(0, calls[0]);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}